@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/**
+ * Keeps a copy of {@code agent.jar} under {@code JENKINS_HOME/caches/command-launcher}, named after its SHA-256 checksum,
+ * so that launch commands can copy it from disk, or skip copying it when the agent already has that version,
+ * instead of downloading it from {@code AGENTJAR_URL} on every launch.
+ */
+final class AgentJarCache {
+
+    /**
+     * Environment variable holding the absolute path of the cached {@code agent.jar}.
+     */
+    static final String PATH_ENV = "AGENTJAR_PATH";
+
+    /**
+     * Environment variable holding the hex encoded SHA-256 checksum of the cached {@code agent.jar}.
+     */
+    static final String SHA256_ENV = "AGENTJAR_SHA256";
+
+    /**
+     * Minutes to wait after a failure to cache {@code agent.jar} before trying again.
+     */
+    static final long RETRY_MINUTES = 10;
+
+    private static volatile Entry cached;
+
+    /**
+     * {@link System#nanoTime} of the last failure to cache {@code agent.jar}, if it is the last attempt.
+     */
+    private static Long failedAt;
+
+    private AgentJarCache() {}
+
+    /**
+     * Gets the cached {@code agent.jar}, creating it on first use.
+     * After a failure, launches go without it for {@link #RETRY_MINUTES} rather than each trying again.
+     *
+     * @return the cached jar, or null if it could not be created
+     */
+    @CheckForNull
+    static Entry get() {
+        Entry entry = cached;
+        if (entry != null && Files.isRegularFile(entry.path)) {
+            return entry;
+        }
+        synchronized (AgentJarCache.class) {
+            entry = cached;
+            if (entry != null && Files.isRegularFile(entry.path)) {
+                return entry;
+            }
+            if (failedAt != null && System.nanoTime() - failedAt < TimeUnit.MINUTES.toNanos(RETRY_MINUTES)) {
+                return null;
+            }
+            try {
+                entry = create(Jenkins.get().getJnlpJars("agent.jar").getURL(), getDirectory());
+                failedAt = null;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to cache agent.jar, retrying in " + RETRY_MINUTES + " minutes", e);
+                entry = null;
+                failedAt = System.nanoTime();
+            }
+            if (entry != cached) {
+                cached = entry;
+                EnvironmentGeneration.bump();
+            }
+            return entry;
+        }
+    }
+
+    @NonNull
+    private static Path getDirectory() {
+        return Jenkins.get().getRootDir().toPath().resolve("caches").resolve("command-launcher");
+    }
+
+    /**
+     * Copies the jar at the given URL into the given directory, and removes other jars cached there.
+     */
+    @NonNull
+    static Entry create(@NonNull URL source, @NonNull Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "agent", ".tmp");
+        try {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+            try (InputStream in = source.openStream();
+                 OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                in.transferTo(out);
+            }
+            String sha256 = Util.toHexString(digest.digest());
+            Path path = dir.resolve("agent-" + sha256 + ".jar");
+            try {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // same content, possibly copied by an earlier run
+            }
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, "agent-*.jar")) {
+                for (Path p : stale) {
+                    if (!p.equals(path)) {
+                        Files.deleteIfExists(p);
+                    }
+                }
+            }
+            return new Entry(path, sha256);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * A cached copy of {@code agent.jar}.
+     */
+    static final class Entry {
+        @NonNull
+        final Path path;
+        @NonNull
+        final String sha256;
+
+        Entry(@NonNull Path path, @NonNull String sha256) {
+            this.path = path;
+            this.sha256 = sha256;
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(AgentJarCache.class.getName());
+}
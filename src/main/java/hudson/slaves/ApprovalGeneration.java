@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+
+/**
+ * Counts changes to {@link ScriptApproval}, so that launchers can tell whether an approval they checked before still holds.
+ * {@link ScriptApproval} saves itself whenever scripts are approved or revoked;
+ * it is loaded without saving when the configuration is reloaded from disk or applied by configuration as code,
+ * which is noticed by the modification time of its file.
+ */
+final class ApprovalGeneration {
+
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    /**
+     * The file {@link ScriptApproval} is saved to and loaded from.
+     */
+    static final String FILE = "scriptApproval.xml";
+
+    private static volatile long fileModified;
+
+    private ApprovalGeneration() {}
+
+    /**
+     * The current generation; changes whenever approvals may have changed.
+     */
+    static long current() {
+        Jenkins j = Jenkins.getInstanceOrNull();
+        if (j != null) {
+            long modified = new File(j.getRootDir(), FILE).lastModified();
+            if (modified != fileModified) {
+                fileModified = modified;
+                GENERATION.incrementAndGet();
+            }
+        }
+        return GENERATION.get();
+    }
+
+    @Extension
+    public static final class Listener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof ScriptApproval) {
+                GENERATION.incrementAndGet();
+            }
+        }
+    }
+}
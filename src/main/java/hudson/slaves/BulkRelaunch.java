@@ -0,0 +1,292 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+
+/**
+ * Relaunches many agents at once, a limited number at a time, such as after network maintenance.
+ * <p>
+ * Only agents launched by a {@link CommandLauncher} are relaunched; other selected agents are reported as skipped.
+ * {@linkplain #select Selecting} agents requires the requesting user to be allowed to connect agents at all,
+ * and whether the user may connect each selected agent is checked as it is {@linkplain #run relaunched},
+ * both on the thread of the requesting user, for the REST endpoint and the CLI command alike.
+ */
+final class BulkRelaunch {
+
+    static final int DEFAULT_CONCURRENCY = 10;
+    static final int DEFAULT_TIMEOUT_SECONDS = 300;
+
+    /**
+     * The outcome of relaunching a single agent.
+     */
+    enum Outcome {
+        /** The agent is online after the relaunch. */
+        CONNECTED,
+        /** The agent is offline after the relaunch. */
+        FAILED,
+        /** The relaunch did not finish within the timeout; it goes on in the background. */
+        TIMED_OUT,
+        /** The agent is not launched by a {@link CommandLauncher}. */
+        SKIPPED,
+        /** The requesting user may not connect the agent. */
+        FORBIDDEN
+    }
+
+    private final List<Computer> targets;
+    private final int concurrency;
+    private final long timeoutSeconds;
+
+    private BulkRelaunch(List<Computer> targets, int concurrency, long timeoutSeconds) {
+        this.targets = targets;
+        this.concurrency = concurrency > 0 ? concurrency : DEFAULT_CONCURRENCY;
+        this.timeoutSeconds = timeoutSeconds > 0 ? timeoutSeconds : DEFAULT_TIMEOUT_SECONDS;
+    }
+
+    /**
+     * Selects the agents matching a label expression, plus the agents named explicitly.
+     *
+     * @param labelExpression a label expression, or null or empty to only use {@code nodeNames}
+     * @param nodeNames       names of agents to relaunch regardless of their labels
+     * @throws IllegalArgumentException if the label expression is invalid, a named agent does not exist, or nothing was selected
+     */
+    @NonNull
+    static BulkRelaunch select(@CheckForNull String labelExpression, @NonNull Collection<String> nodeNames, int concurrency, long timeoutSeconds) {
+        Jenkins j = Jenkins.get();
+        // before looking up agents or evaluating the label on behalf of the user
+        j.checkAnyPermission(Computer.CONNECT, Jenkins.ADMINISTER);
+        Set<Node> nodes = new LinkedHashSet<>();
+        for (String name : nodeNames) {
+            Node node = j.getNode(name);
+            if (node == null) {
+                throw new IllegalArgumentException(org.jenkinsci.plugins.command_launcher.Messages.BulkRelaunch_noSuchNode(name));
+            }
+            nodes.add(node);
+        }
+        labelExpression = Util.fixEmptyAndTrim(labelExpression);
+        if (labelExpression != null) {
+            Label label;
+            try {
+                label = Label.parseExpression(labelExpression);
+            } catch (Exception e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+            for (Node node : j.getNodes()) {
+                if (label.matches(node)) {
+                    nodes.add(node);
+                }
+            }
+        }
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException(org.jenkinsci.plugins.command_launcher.Messages.BulkRelaunch_nothingSelected());
+        }
+        List<Computer> targets = new ArrayList<>();
+        for (Node node : nodes) {
+            Computer c = node.toComputer();
+            if (c != null) {
+                targets.add(c);
+            }
+        }
+        return new BulkRelaunch(targets, concurrency, timeoutSeconds);
+    }
+
+    /**
+     * Relaunches the selected agents and waits for all of them.
+     *
+     * @param progress receives each result as soon as it is known
+     * @return the results in the order they became known
+     */
+    @NonNull
+    List<Result> run(@NonNull Consumer<Result> progress) throws InterruptedException {
+        List<Result> results = new ArrayList<>();
+        List<Computer> relaunched = new ArrayList<>();
+        for (Computer c : targets) {
+            Outcome skipped = null;
+            if (!(c instanceof SlaveComputer) || !(((SlaveComputer) c).getDelegatedLauncher() instanceof CommandLauncher)) {
+                skipped = Outcome.SKIPPED;
+            } else if (!c.hasPermission(Computer.CONNECT)) {
+                skipped = Outcome.FORBIDDEN;
+            }
+            if (skipped != null) {
+                Result result = new Result(c.getName(), skipped, 0, null);
+                results.add(result);
+                progress.accept(result);
+            } else {
+                relaunched.add(c);
+            }
+        }
+        if (relaunched.isEmpty()) {
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, relaunched.size()),
+                new NamingThreadFactory(new DaemonThreadFactory(), "CommandLauncher bulk relaunch"));
+        try {
+            CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+            for (Computer c : relaunched) {
+                completion.submit(() -> relaunch(c));
+            }
+            for (int i = 0; i < relaunched.size(); i++) {
+                Result result;
+                try {
+                    result = completion.take().get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+                results.add(result);
+                progress.accept(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private Result relaunch(Computer c) throws InterruptedException {
+        long startedAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Future<?> launch = c.connect(true);
+        Outcome outcome;
+        try {
+            launch.get(timeoutSeconds, TimeUnit.SECONDS);
+            outcome = c.isOnline() ? Outcome.CONNECTED : Outcome.FAILED;
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.FINE, "failed to relaunch " + c.getName(), e);
+            outcome = Outcome.FAILED;
+        } catch (TimeoutException e) {
+            outcome = Outcome.TIMED_OUT;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LaunchFailure failure = null;
+        if (outcome == Outcome.FAILED) {
+            List<LaunchRecord> history = LaunchStatistics.get().getHistory(c.getName()).getRecords();
+            if (!history.isEmpty() && history.get(0).getStartedAt() >= startedAt) {
+                failure = history.get(0).getFailure();
+            }
+        }
+        return new Result(c.getName(), outcome, millis, failure);
+    }
+
+    /**
+     * Number of results per outcome, for outcomes that occurred.
+     */
+    @NonNull
+    static Map<Outcome, Integer> count(@NonNull List<Result> results) {
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        for (Result result : results) {
+            counts.merge(result.outcome, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * The outcome of relaunching a single agent.
+     */
+    static final class Result {
+        private final String nodeName;
+        private final Outcome outcome;
+        private final long millis;
+        @CheckForNull
+        private final LaunchFailure failure;
+
+        Result(@NonNull String nodeName, @NonNull Outcome outcome, long millis, @CheckForNull LaunchFailure failure) {
+            this.nodeName = nodeName;
+            this.outcome = outcome;
+            this.millis = millis;
+            this.failure = failure;
+        }
+
+        String getNodeName() {
+            return nodeName;
+        }
+
+        Outcome getOutcome() {
+            return outcome;
+        }
+
+        boolean isFailed() {
+            return outcome != Outcome.CONNECTED && outcome != Outcome.SKIPPED;
+        }
+
+        /**
+         * Time taken by the relaunch.
+         */
+        long getMillis() {
+            return millis;
+        }
+
+        /**
+         * Why the launch failed, if it did and the launch was recorded.
+         */
+        @CheckForNull
+        LaunchFailure getFailure() {
+            return failure;
+        }
+
+        @NonNull
+        JSONObject toJSON() {
+            JSONObject json = new JSONObject();
+            json.put("nodeName", nodeName);
+            json.put("outcome", outcome.name());
+            json.put("millis", millis);
+            if (failure != null) {
+                json.put("failure", failure.name());
+            }
+            return json;
+        }
+
+        @Override
+        public String toString() {
+            return nodeName + '\t' + outcome + '\t' + millis + " ms" + (failure != null ? "\t" + failure : "");
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(BulkRelaunch.class.getName());
+}
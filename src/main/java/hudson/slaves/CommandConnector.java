@@ -23,6 +23,7 @@
  */
 package hudson.slaves;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import hudson.EnvVars;
@@ -40,6 +41,7 @@ import org.jenkinsci.plugins.scriptsecurity.scripts.ApprovalContext;
 import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
 import org.jenkinsci.plugins.scriptsecurity.scripts.languages.SystemCommandLanguage;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.Stapler;
 import org.kohsuke.stapler.StaplerRequest2;
@@ -52,6 +54,26 @@ import org.kohsuke.stapler.StaplerRequest2;
 public class CommandConnector extends ComputerConnector {
     public final String command;
 
+    /**
+     * How failed launches are retried, or null to not retry.
+     */
+    private LaunchRetryPolicy retryPolicy;
+
+    /**
+     * Number of launch command processes per host to keep started ahead of time.
+     */
+    private int standbyProcesses;
+
+    /**
+     * Maximum number of launches in progress on the same host; zero means unlimited.
+     */
+    private int maxConcurrentLaunchesPerHost;
+
+    /**
+     * Minimum time in milliseconds between two launches on the same host; zero means none.
+     */
+    private long launchSpacing;
+
     @DataBoundConstructor
     public CommandConnector(String command) {
         this.command = command;
@@ -60,14 +82,59 @@ public class CommandConnector extends ComputerConnector {
     }
 
     private Object readResolve() {
-        ScriptApproval.get().configuring(command, SystemCommandLanguage.get(), ApprovalContext.create(), true);
+        DeferredApprovals.configuring(command);
         return this;
     }
 
+    @CheckForNull
+    public LaunchRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    @DataBoundSetter
+    public void setRetryPolicy(@CheckForNull LaunchRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public int getStandbyProcesses() {
+        return standbyProcesses;
+    }
+
+    @DataBoundSetter
+    public void setStandbyProcesses(int standbyProcesses) {
+        this.standbyProcesses = Math.max(0, standbyProcesses);
+    }
+
+    public int getMaxConcurrentLaunchesPerHost() {
+        return maxConcurrentLaunchesPerHost;
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentLaunchesPerHost(int maxConcurrentLaunchesPerHost) {
+        this.maxConcurrentLaunchesPerHost = Math.max(0, maxConcurrentLaunchesPerHost);
+    }
+
+    public long getLaunchSpacing() {
+        return launchSpacing;
+    }
+
+    @DataBoundSetter
+    public void setLaunchSpacing(long launchSpacing) {
+        this.launchSpacing = Math.max(0, launchSpacing);
+    }
+
     @Override
     public CommandLauncher launch(String host, TaskListener listener) throws IOException, InterruptedException {
         // no need to call ScriptApproval.using here; CommandLauncher.launch will do that
-        return new CommandLauncher(new EnvVars("SLAVE", host, "AGENT", host), command);
+        CommandLauncher launcher = new CommandLauncher(new EnvVars("SLAVE", host, "AGENT", host), command);
+        launcher.setRetryPolicy(retryPolicy);
+        launcher.standbyProcesses = standbyProcesses;
+        if (maxConcurrentLaunchesPerHost > 0 || launchSpacing > 0) {
+            launcher.host = host;
+            launcher.maxConcurrentLaunchesPerHost = maxConcurrentLaunchesPerHost;
+            launcher.launchSpacing = launchSpacing;
+        }
+        return launcher;
     }
 
     @Extension @Symbol("command")
@@ -26,11 +26,14 @@ package hudson.slaves;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.AbortException;
+import hudson.CloseProofOutputStream;
 import hudson.EnvVars;
 import hudson.Extension;
 import hudson.Functions;
 import hudson.Util;
+import hudson.model.Computer;
 import hudson.model.ComputerSet;
 import hudson.model.Descriptor;
 import hudson.model.DescriptorVisibilityFilter;
@@ -38,14 +41,28 @@ import hudson.model.Slave;
 import hudson.model.TaskListener;
 import hudson.remoting.Channel;
 import hudson.util.FormValidation;
-import hudson.util.ProcessTree;
 import hudson.util.StreamCopyThread;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
 import net.sf.json.JSONObject;
 import java.util.Objects;
 import org.jenkinsci.Symbol;
@@ -53,8 +70,11 @@ import org.jenkinsci.plugins.scriptsecurity.scripts.ApprovalContext;
 import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
 import org.jenkinsci.plugins.scriptsecurity.scripts.UnapprovedUsageException;
 import org.jenkinsci.plugins.scriptsecurity.scripts.languages.SystemCommandLanguage;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.Ancestor;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.Stapler;
 import org.kohsuke.stapler.StaplerRequest2;
@@ -78,6 +98,70 @@ public class CommandLauncher extends ComputerLauncher {
      */
     private final EnvVars env;
 
+    /**
+     * Seconds to wait for the remoting channel to be established before the launched process is killed; zero waits forever.
+     */
+    private int handshakeTimeout;
+
+    /**
+     * How failed launches are retried, or null to not retry.
+     */
+    private LaunchRetryPolicy retryPolicy;
+
+    /**
+     * Whether the remoting channel is carried over a Unix domain socket rather than the process' stdin/stdout.
+     */
+    private boolean unixSocket;
+
+    /**
+     * Size in KiB of the buffers wrapped around the channel streams; zero uses the streams as they are.
+     */
+    private int channelBufferSize;
+
+    /**
+     * Upper bound of {@link #channelBufferSize}.
+     */
+    static final int MAX_CHANNEL_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Number of processes to keep started ahead of time in the {@link StandbyPool}, set by {@link CommandConnector}.
+     */
+    int standbyProcesses;
+
+    /**
+     * Whether the launched process only gets the allowlisted controller environment variables.
+     */
+    private boolean cleanEnvironment;
+
+    private transient volatile EnvironmentTemplate environmentTemplate;
+
+    /**
+     * {@link ApprovalGeneration} at which {@link #agentCommand} was last found to be approved, or null.
+     */
+    private transient volatile Long approvedGeneration;
+
+    /**
+     * {@link #agentCommand} split into arguments.
+     */
+    private transient volatile String[] argv;
+
+    /**
+     * The host this launcher targets, set by {@link CommandConnector} to limit the launches on it; null for no limit.
+     * Kept along with the limits rather than the {@link LaunchThrottle}, so that they also apply after a restart.
+     */
+    @CheckForNull
+    String host;
+
+    /**
+     * Limit on the launches in progress on {@link #host}, set by {@link CommandConnector}; zero for no limit.
+     */
+    int maxConcurrentLaunchesPerHost;
+
+    /**
+     * Minimum milliseconds between launches on {@link #host}, set by {@link CommandConnector}.
+     */
+    long launchSpacing;
+
     /** Constructor for use from UI. Conditionally approves the script.
      *
      * @param command  the command to run pending approval
@@ -125,7 +209,7 @@ public class CommandLauncher extends ComputerLauncher {
       }
     
     private Object readResolve() {
-        ScriptApproval.get().configuring(agentCommand, SystemCommandLanguage.get(), ApprovalContext.create(), true);
+        DeferredApprovals.configuring(agentCommand);
         return this;
     }
 
@@ -133,6 +217,52 @@ public class CommandLauncher extends ComputerLauncher {
         return agentCommand;
     }
 
+    public int getHandshakeTimeout() {
+        return handshakeTimeout;
+    }
+
+    @DataBoundSetter
+    public void setHandshakeTimeout(int handshakeTimeout) {
+        this.handshakeTimeout = Math.max(0, handshakeTimeout);
+    }
+
+    @CheckForNull
+    public LaunchRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    @DataBoundSetter
+    public void setRetryPolicy(@CheckForNull LaunchRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public boolean isUnixSocket() {
+        return unixSocket;
+    }
+
+    @DataBoundSetter
+    public void setUnixSocket(boolean unixSocket) {
+        this.unixSocket = unixSocket;
+    }
+
+    public boolean isCleanEnvironment() {
+        return cleanEnvironment;
+    }
+
+    @DataBoundSetter
+    public void setCleanEnvironment(boolean cleanEnvironment) {
+        this.cleanEnvironment = cleanEnvironment;
+    }
+
+    public int getChannelBufferSize() {
+        return channelBufferSize;
+    }
+
+    @DataBoundSetter
+    public void setChannelBufferSize(int channelBufferSize) {
+        this.channelBufferSize = Math.max(0, Math.min(MAX_CHANNEL_BUFFER_SIZE, channelBufferSize));
+    }
+
     /**
      * Gets the formatted current time stamp.
      */
@@ -140,10 +270,81 @@ public class CommandLauncher extends ComputerLauncher {
         return String.format("[%1$tD %1$tT]", new Date());
     }
 
+    /**
+     * Whether the standard error of launched processes is copied by the shared {@link StderrPump}
+     * rather than by a dedicated thread per agent.
+     * Turn off for launch commands whose children keep writing to standard error after the command itself exits.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    static /* not final */ boolean SHARED_STDERR_PUMP = SystemProperties.getBoolean(CommandLauncher.class.getName() + ".sharedStderrPump", true);
+
+    /**
+     * How long a failed launch waits for the launched process to terminate, to report its exit code.
+     */
+    private static final long EXIT_WAIT_MILLIS = 200;
+
+    /**
+     * Limits the number of command launches in progress across the controller.
+     */
+    static final LaunchThrottle THROTTLE = new LaunchThrottle(() -> CommandLauncherConfiguration.get().getMaxConcurrentLaunches());
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This blocks until the channel is established or the launch has failed:
+     * {@link SlaveComputer} considers a launch that returns without a channel to have failed,
+     * so the work cannot be handed off to run asynchronously.
+     * Use {@link #setHandshakeTimeout(int)} to bound how long a hanging launch command can hold the calling thread.
+     */
     @Override
     public void launch(SlaveComputer computer, final TaskListener listener) {
+        for (int attempt = 1; ; attempt++) {
+            RetryableFailure failure = launchAttempt(computer, listener);
+            if (failure == null || retryPolicy == null) {
+                return;
+            }
+            try {
+                String tail = "";
+                if (failure.stderr != null) {
+                    if (retryPolicy.isStderrPatternSet()) {
+                        // give the stderr copier a moment to catch up with the terminated process
+                        failure.stderr.awaitClosed(1000);
+                    }
+                    tail = failure.stderr.getTail();
+                }
+                if (!retryPolicy.shouldRetry(attempt, failure.exitCode, tail)) {
+                    return;
+                }
+                long delay = retryPolicy.getDelayMillis(attempt);
+                listener.getLogger().println(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_retrying(attempt, retryPolicy.getMaxAttempts(), delay));
+                Thread.sleep(delay);
+                // the agent may have been deleted while waiting, which nothing interrupts
+                if (computer.getNode() == null) {
+                    listener.getLogger().println(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_retryCancelled());
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Functions.printStackTrace(e, listener.error(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_abortedLaunch()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Makes a single attempt at launching the agent.
+     *
+     * @return the failure if the attempt failed in a way that another attempt might fix, otherwise null
+     */
+    @CheckForNull
+    private RetryableFailure launchAttempt(SlaveComputer computer, final TaskListener listener) {
         EnvVars _cookie = null;
         Process _proc = null;
+        StderrCapture _stderr = null;
+        LaunchThrottle.Slot hostSlot = null;
+        final AtomicBoolean tornDown = new AtomicBoolean();
+        LaunchThrottle.Slot slot = null;
+        UnixSocketTransport transport = null;
+        final LaunchTrace trace = new LaunchTrace(computer.getName());
         try {
             Slave node = computer.getNode();
             if (node == null) {
@@ -151,60 +352,181 @@ public class CommandLauncher extends ComputerLauncher {
             }
 
             listener.getLogger().println(org.jenkinsci.plugins.command_launcher.Messages.Slave_Launching(getTimestamp()));
-            String command = ScriptApproval.get().using(getCommand(), SystemCommandLanguage.get());
+            trace.enter(LaunchPhase.APPROVAL);
+            String command = getApprovedCommand();
+            trace.exit(LaunchPhase.APPROVAL);
             if (command.trim().length() == 0) {
                 listener.getLogger().println(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_NoLaunchCommand());
-                return;
+                return null;
             }
             listener.getLogger().println("$ " + command);
 
-            ProcessBuilder pb = new ProcessBuilder(Util.tokenize(command));
-            final EnvVars cookie = _cookie = EnvVars.createCookie();
-            pb.environment().putAll(cookie);
-            pb.environment().put("WORKSPACE", computer.getAbsoluteRemoteFs() != null ? computer.getAbsoluteRemoteFs() : node.getRemoteFS()); //path for local agent log
-
-            {// system defined variables
-                pb.environment().put("NODE_NAME", computer.getName());
-                String rootUrl = Jenkins.getInstance().getRootUrl();
-                if (rootUrl!=null) {
-                    pb.environment().put("HUDSON_URL", rootUrl);    // for backward compatibility
-                    pb.environment().put("JENKINS_URL", rootUrl);
-                    pb.environment().put("SLAVEJAR_URL", rootUrl+"/jnlpJars/agent.jar");
-                    pb.environment().put("AGENTJAR_URL", rootUrl+"/jnlpJars/agent.jar");
+            LaunchThrottle hostThrottle = host != null && (maxConcurrentLaunchesPerHost > 0 || launchSpacing > 0)
+                    ? HostLaunchThrottles.get(host, maxConcurrentLaunchesPerHost, launchSpacing) : null;
+            if (hostThrottle != null) {
+                // before the controller-wide slot, so that a busy host does not hold up launches on other hosts
+                int hostQueued = hostThrottle.getQueueLength();
+                if (hostQueued > 0) {
+                    listener.getLogger().println(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_waitingForHostLaunchSlot(hostThrottle.getName(), hostThrottle.getActive(), hostQueued));
+                }
+                hostSlot = hostThrottle.acquire();
+                if (hostSlot.getWaitMillis() > 0) {
+                    listener.getLogger().println(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_acquiredLaunchSlot(hostSlot.getWaitMillis()));
                 }
             }
+            int queued = THROTTLE.getQueueLength();
+            if (queued > 0) {
+                listener.getLogger().println(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_waitingForLaunchSlot(THROTTLE.getActive(), queued));
+            }
+            slot = THROTTLE.acquire();
+            if (slot.getWaitMillis() > 0) {
+                listener.getLogger().println(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_acquiredLaunchSlot(slot.getWaitMillis()));
+            }
 
-            if (env != null) {
-            	pb.environment().putAll(env);
+            StandbyPool.Standby standby = null;
+            if (standbyProcesses > 0 && !unixSocket) {
+                String key = getCommand() + '\0' + env;
+                standby = StandbyPool.INSTANCE.take(key);
+                StandbyPool.INSTANCE.replenish(key, standbyProcesses,
+                        c -> createStandbyProcessBuilder(getApprovedCommand(), c),
+                        hostThrottle != null ? new LaunchThrottle[] {hostThrottle, THROTTLE} : new LaunchThrottle[] {THROTTLE});
+            }
+
+            CommandLauncherConfiguration config = CommandLauncherConfiguration.get();
+            StderrCapture stderr = _stderr = new StderrCapture(listener.getLogger(), Charset.defaultCharset(),
+                    config.getStderrTailSize() * 1024, config.getStderrRateLimit() * 1024L);
+            final EnvVars cookie;
+            final Process proc;
+            if (standby != null) {
+                listener.getLogger().println(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_usingStandby(standby.getAgeSeconds()));
+                cookie = _cookie = standby.cookie;
+                proc = _proc = standby.proc;
+            } else {
+                trace.enter(LaunchPhase.ENVIRONMENT);
+                cookie = _cookie = EnvVars.createCookie();
+                ProcessBuilder pb = createProcessBuilder(command, computer, node, cookie);
+                if (unixSocket) {
+                    transport = UnixSocketTransport.open();
+                    pb.environment().put(UnixSocketTransport.ENV, transport.getPath().toString());
+                }
+                trace.exit(LaunchPhase.ENVIRONMENT);
+
+                trace.enter(LaunchPhase.SPAWN);
+                proc = _proc = pb.start();
+                trace.exit(LaunchPhase.SPAWN);
             }
+            LaunchedProcesses.add(proc, cookie, tornDown);
 
-            final Process proc = _proc = pb.start();
+            // cleared by whichever of success, fail-fast, process exit and watchdog comes first, so only that one reports
+            final AtomicBoolean connecting = new AtomicBoolean(true);
+            // dead hosts usually say so on stderr long before the handshake could time out
+            stderr.failFast(config.getFailFastPatternList(), line -> {
+                if (connecting.compareAndSet(true, false)) {
+                    trace.failed(LaunchFailure.STDERR_PATTERN);
+                    listener.error(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_failFastMatched(line));
+                    // not on the thread copying stderr, which must keep draining the pipe
+                    ProcessReaper.INSTANCE.reap(proc, cookie, tornDown, null);
+                }
+            });
 
             // capture error information from stderr. this will terminate itself
-            // when the process is killed.
-            new StreamCopyThread("stderr copier for remote agent on " + computer.getDisplayName(),
-                    proc.getErrorStream(), listener.getLogger()).start();
-
-            computer.setChannel(proc.getInputStream(), proc.getOutputStream(), listener.getLogger(), new Channel.Listener() {
-                @Override
-                public void onClosed(Channel channel, IOException cause) {
-                    reportProcessTerminated(proc, listener);
-
-                    try {
-                        ProcessTree.get().killAll(proc, cookie);
-                    } catch (InterruptedException e) {
-                        LOGGER.log(Level.INFO, "interrupted", e);
+            // when the process is killed. standby processes are already being pumped.
+            if (standby != null) {
+                standby.stderr.attach(stderr);
+            } else if (SHARED_STDERR_PUMP) {
+                StderrPump.INSTANCE.register(proc, proc.getErrorStream(), stderr);
+            } else {
+                new StreamCopyThread("stderr copier for remote agent on " + computer.getDisplayName(),
+                        proc.getErrorStream(), stderr, true).start();
+            }
+            if (transport != null) {
+                // stdout is not the channel, so treat it like stderr
+                StderrPump.INSTANCE.register(proc, proc.getInputStream(), new CloseProofOutputStream(listener.getLogger()));
+            }
+
+            trace.enter(LaunchPhase.CHANNEL);
+            // a process that dies during the handshake may leave descendants holding on to its pipes,
+            // which would keep setChannel waiting, so kill them as soon as the exit is observed
+            proc.onExit().thenAcceptAsync(p -> {
+                if (connecting.compareAndSet(true, false)) {
+                    trace.failed(LaunchFailure.PROCESS_EXITED);
+                    trace.setExitCode(p.exitValue());
+                    ProcessReaper.INSTANCE.reap(proc, cookie, tornDown, null);
+                }
+            }, Computer.threadPoolForRemoting);
+            ScheduledFuture<?> watchdog = handshakeTimeout > 0 ? Timer.get().schedule(() -> {
+                if (!connecting.compareAndSet(true, false)) {
+                    // connected, or already failed, as the task ran
+                    return;
+                }
+                LaunchPhase stalled = trace.getMillis(LaunchPhase.FIRST_BYTE) == null ? LaunchPhase.FIRST_BYTE : LaunchPhase.CHANNEL;
+                trace.failed(LaunchFailure.HANDSHAKE_TIMEOUT);
+                listener.error(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_handshakeTimeout(handshakeTimeout, stalled));
+                // setChannel fails once the process and its pipes are gone
+                ProcessReaper.INSTANCE.reap(proc, cookie, tornDown, null);
+            }, handshakeTimeout, TimeUnit.SECONDS) : null;
+            try {
+                InputStream in;
+                OutputStream out;
+                // in long, as a size loaded from disk has not been through the setter
+                int bufferSize = (int) Math.min(MAX_CHANNEL_BUFFER_SIZE * 1024L, channelBufferSize * 1024L);
+                if (transport != null) {
+                    SocketChannel socket = transport.accept(proc);
+                    in = UnixSocketTransport.in(socket, bufferSize);
+                    out = UnixSocketTransport.out(socket, bufferSize);
+                } else if (channelBufferSize > 0) {
+                    // remoting flushes after every command, so this only coalesces the writes of a single command
+                    in = new BufferedInputStream(proc.getInputStream(), bufferSize);
+                    out = new BufferedOutputStream(proc.getOutputStream(), bufferSize);
+                } else {
+                    in = proc.getInputStream();
+                    out = proc.getOutputStream();
+                }
+                LaunchStatistics.Summary[] traffic = LaunchStatistics.get().trafficSummaries(computer.getName());
+                in = ChannelTraffic.received(in, traffic);
+                out = ChannelTraffic.sent(out, traffic);
+                computer.setChannel(trace.watch(in), out, listener.getLogger(), new Channel.Listener() {
+                    @Override
+                    public void onClosed(Channel channel, IOException cause) {
+                        // off the remoting thread delivering the close, which other channels may be waiting for
+                        ProcessReaper.INSTANCE.reap(proc, cookie, tornDown, () -> reportProcessTerminated(proc, listener, 0));
                     }
+                });
+            } finally {
+                connecting.set(false);
+                stderr.stopFailFast();
+                if (watchdog != null) {
+                    watchdog.cancel(false);
                 }
-            });
+            }
+            trace.exit(LaunchPhase.CHANNEL);
+            trace.succeeded();
+            stderr.releaseTail();
 
             LOGGER.info("agent launched for " + computer.getDisplayName());
         } catch (InterruptedException e) {
+            trace.failed(LaunchFailure.ABORTED);
             Functions.printStackTrace(e, listener.error(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_abortedLaunch()));
+            if (_proc != null) {
+                // without a channel, nothing else would ever tear it down
+                ProcessReaper.INSTANCE.reap(_proc, _cookie, tornDown, null);
+            }
         } catch (UnapprovedUsageException e) {
+            trace.failed(LaunchFailure.UNAPPROVED);
             listener.error(e.getMessage());
+        } catch (AbortException e) {
+            // such as a deleted node, which another attempt would not find either
+            trace.failed(LaunchFailure.SPAWN_FAILED);
+            listener.error(e.getMessage());
+            if (_proc != null) {
+                ProcessReaper.INSTANCE.reap(_proc, _cookie, tornDown, null);
+            }
         } catch (RuntimeException | Error e) {
+            trace.failed(LaunchFailure.UNEXPECTED);
             Functions.printStackTrace(e, listener.error(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_unexpectedError()));
+            if (_proc != null) {
+                ProcessReaper.INSTANCE.reap(_proc, _cookie, tornDown, null);
+            }
         } catch (IOException e) {
             Util.displayIOException(e, listener);
 
@@ -219,24 +541,230 @@ public class CommandLauncher extends ComputerLauncher {
             LOGGER.log(Level.SEVERE, msg, e);
             Functions.printStackTrace(e, listener.error(msg));
 
-            if(_proc!=null) {
-                reportProcessTerminated(_proc, listener);
+            if (_proc == null) {
+                trace.failed(LaunchFailure.SPAWN_FAILED);
+            } else {
+                // the exit may not have been observed yet if the failure was noticed through the pipes first
+                Integer exitCode = reportProcessTerminated(_proc, listener, EXIT_WAIT_MILLIS);
+                if (exitCode != null) {
+                    trace.setExitCode(exitCode);
+                }
+                trace.failed(trace.getExitCode() != null ? LaunchFailure.PROCESS_EXITED : LaunchFailure.CHANNEL_FAILED);
                 try {
-                    ProcessTree.get().killAll(_proc, _cookie);
+                    ProcessTeardown.killOnce(_proc, _cookie, tornDown);
                 } catch (InterruptedException x) {
                     Functions.printStackTrace(x, listener.error(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_abortedLaunch()));
+                    return null;
                 }
             }
+            return new RetryableFailure(trace.getExitCode(), _stderr);
+        } finally {
+            if (slot != null) {
+                slot.close();
+            }
+            if (hostSlot != null) {
+                hostSlot.close();
+            }
+            if (transport != null) {
+                transport.close();
+            }
+            if (trace.getPhase() != null) {
+                LaunchStatistics.get().record(trace);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A failed launch attempt that may be retried.
+     */
+    private static final class RetryableFailure {
+        @CheckForNull
+        final Integer exitCode;
+        /** The stderr of the attempt, unless it failed before starting a process. */
+        @CheckForNull
+        final StderrCapture stderr;
+
+        RetryableFailure(@CheckForNull Integer exitCode, @CheckForNull StderrCapture stderr) {
+            this.exitCode = exitCode;
+            this.stderr = stderr;
+        }
+    }
+
+    /**
+     * Gets the command after checking that it is approved.
+     * The check is skipped if it passed before and approvals have not changed since.
+     *
+     * @throws UnapprovedUsageException if the command is not approved
+     */
+    @Restricted(NoExternalUse.class) // public for benchmarks
+    @NonNull
+    public String getApprovedCommand() throws UnapprovedUsageException {
+        long generation = ApprovalGeneration.current();
+        Long approved = approvedGeneration;
+        if (approved == null || approved != generation) {
+            ScriptApproval.get().using(getCommand(), SystemCommandLanguage.get());
+            approvedGeneration = generation;
+        }
+        return getCommand();
+    }
+
+    /**
+     * Splits a command into arguments, reusing the result for the command of this launcher.
+     */
+    @NonNull
+    private String[] tokenize(@NonNull String command) {
+        if (!command.equals(agentCommand)) {
+            return Util.tokenize(command);
+        }
+        String[] argv = this.argv;
+        if (argv == null) {
+            this.argv = argv = Util.tokenize(command);
         }
+        return argv;
     }
 
-    private static void reportProcessTerminated(Process proc, TaskListener listener) {
+    /**
+     * Prepares the command line and environment of the launched process.
+     *
+     * @param command the approved launch command
+     * @param cookie  the cookie identifying the processes of this launch
+     */
+    @Restricted(NoExternalUse.class) // public for benchmarks
+    @NonNull
+    public ProcessBuilder createProcessBuilder(@NonNull String command, @NonNull SlaveComputer computer, @NonNull Slave node, @NonNull EnvVars cookie) {
+        ProcessBuilder pb = new ProcessBuilder(tokenize(command));
+        EnvironmentTemplate template = getEnvironmentTemplate();
+        Map<String, String> environment = pb.environment();
+        template.inherit(environment);
+        environment.putAll(cookie);
+        environment.put("WORKSPACE", computer.getAbsoluteRemoteFs() != null ? computer.getAbsoluteRemoteFs() : node.getRemoteFS()); //path for local agent log
+        environment.put("NODE_NAME", computer.getName());
+        environment.putAll(template.variables);
+        return pb;
+    }
+
+    /**
+     * Prepares a process for the {@link StandbyPool}, which lacks the variables specific to a computer.
+     */
+    @NonNull
+    private ProcessBuilder createStandbyProcessBuilder(@NonNull String command, @NonNull EnvVars cookie) {
+        ProcessBuilder pb = new ProcessBuilder(tokenize(command));
+        EnvironmentTemplate template = getEnvironmentTemplate();
+        Map<String, String> environment = pb.environment();
+        template.inherit(environment);
+        environment.putAll(cookie);
+        environment.putAll(template.variables);
+        return pb;
+    }
+
+    /**
+     * Gets the environment template, recomputing it if the settings it was computed from may have changed.
+     */
+    @NonNull
+    private EnvironmentTemplate getEnvironmentTemplate() {
+        long generation = EnvironmentGeneration.current();
+        EnvironmentTemplate template = environmentTemplate;
+        if (template != null && template.generation == generation
+                && (template.agentJar != null ? Files.isRegularFile(template.agentJar.path) : AgentJarCache.get() == null)) {
+            return template;
+        }
+        String rootUrl = Jenkins.get().getRootUrl();
+        AgentJarCache.Entry agentJar = AgentJarCache.get();
+        String allowlist = cleanEnvironment ? CommandLauncherConfiguration.get().getEnvironmentAllowlist() : null;
+        // a change while computing it makes the template stale right away, as it should be
+        environmentTemplate = template = new EnvironmentTemplate(generation, rootUrl, agentJar, allowlist, env);
+        return template;
+    }
+
+    /**
+     * The part of the launch environment that is the same for every launch of a launcher.
+     */
+    private static final class EnvironmentTemplate {
+        /**
+         * {@link EnvironmentGeneration} the template was computed at.
+         */
+        private final long generation;
+        @CheckForNull
+        private final AgentJarCache.Entry agentJar;
+        /**
+         * Controller environment variables to keep, or null to keep all of them.
+         */
+        @CheckForNull
+        private final Map<String, String> inherited;
+        /**
+         * Variables added after the cookie and the computer variables.
+         */
+        @NonNull
+        final Map<String, String> variables;
+
+        EnvironmentTemplate(long generation, @CheckForNull String rootUrl, @CheckForNull AgentJarCache.Entry agentJar, @CheckForNull String allowlist, @CheckForNull EnvVars env) {
+            this.generation = generation;
+            this.agentJar = agentJar;
+            if (allowlist != null) {
+                Map<String, String> inherited = new LinkedHashMap<>();
+                for (String name : CommandLauncherConfiguration.get().getEnvironmentAllowlistNames()) {
+                    String value = System.getenv(name);
+                    if (value != null) {
+                        inherited.put(name, value);
+                    }
+                }
+                this.inherited = Collections.unmodifiableMap(inherited);
+            } else {
+                this.inherited = null;
+            }
+
+            Map<String, String> variables = new LinkedHashMap<>();
+            {// system defined variables
+                if (rootUrl!=null) {
+                    variables.put("HUDSON_URL", rootUrl);    // for backward compatibility
+                    variables.put("JENKINS_URL", rootUrl);
+                    variables.put("SLAVEJAR_URL", rootUrl+"/jnlpJars/agent.jar");
+                    variables.put("AGENTJAR_URL", rootUrl+"/jnlpJars/agent.jar");
+                }
+                if (agentJar != null) {
+                    variables.put(AgentJarCache.PATH_ENV, agentJar.path.toString());
+                    variables.put(AgentJarCache.SHA256_ENV, agentJar.sha256);
+                }
+            }
+
+            if (env != null) {
+                variables.putAll(env);
+            }
+            this.variables = Collections.unmodifiableMap(variables);
+        }
+
+        /**
+         * Reduces the controller environment a process builder starts with to the allowlist, if there is one.
+         */
+        void inherit(@NonNull Map<String, String> environment) {
+            if (inherited != null) {
+                environment.clear();
+                environment.putAll(inherited);
+            }
+        }
+    }
+
+    /**
+     * Reports the exit code of the launched process, if it has terminated.
+     *
+     * @param waitMillis how long to wait for the process to terminate
+     * @return the exit code, or null if the process is still running
+     */
+    @CheckForNull
+    private static Integer reportProcessTerminated(Process proc, TaskListener listener, long waitMillis) {
         try {
-            int exitCode = proc.exitValue();
-            listener.error("Process terminated with exit code " + exitCode);
-        } catch (IllegalThreadStateException e) {
-            // hasn't terminated yet
+            if (!proc.waitFor(waitMillis, TimeUnit.MILLISECONDS)) {
+                // hasn't terminated yet
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         }
+        int exitCode = proc.exitValue();
+        listener.error("Process terminated with exit code " + exitCode);
+        return exitCode;
     }
 
     private static final Logger LOGGER = Logger.getLogger(CommandLauncher.class.getName());
@@ -261,6 +789,13 @@ public class CommandLauncher extends ComputerLauncher {
             return org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_displayName();
         }
 
+        public FormValidation doCheckChannelBufferSize(@QueryParameter int value) {
+            if (value < 0 || value > MAX_CHANNEL_BUFFER_SIZE) {
+                return FormValidation.error(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_invalidChannelBufferSize(MAX_CHANNEL_BUFFER_SIZE));
+            }
+            return FormValidation.ok();
+        }
+
         public FormValidation doCheckCommand(@QueryParameter String value, @QueryParameter String oldCommand) {
             if(Util.fixEmptyAndTrim(value)==null)
                 return FormValidation.error(org.jenkinsci.plugins.command_launcher.Messages.CommandLauncher_NoLaunchCommand());
@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.Util;
+import hudson.util.FormValidation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import jenkins.model.GlobalConfiguration;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Controller-wide settings shared by all {@link CommandLauncher}s.
+ */
+@Extension @Symbol("commandLauncher")
+public class CommandLauncherConfiguration extends GlobalConfiguration {
+
+    /**
+     * Maximum number of command launches in progress at the same time; zero means unlimited.
+     */
+    private int maxConcurrentLaunches;
+
+    /**
+     * Kilobytes of the most recent stderr output kept per launched process.
+     */
+    private int stderrTailSize = 64;
+
+    /**
+     * Kilobytes per second of stderr output written to the node log; zero means unlimited.
+     */
+    private int stderrRateLimit;
+
+    /**
+     * Names of the controller environment variables passed to launchers with a clean environment,
+     * separated by whitespace or commas.
+     */
+    private String environmentAllowlist = DEFAULT_ENVIRONMENT_ALLOWLIST;
+
+    /**
+     * Regular expressions, one per line, that abort a launch as soon as a line of stderr matches one of them.
+     */
+    private String failFastPatterns;
+
+    private transient volatile List<Pattern> compiledFailFastPatterns;
+
+    static final String DEFAULT_ENVIRONMENT_ALLOWLIST = "PATH HOME USER LOGNAME SHELL LANG LC_ALL TZ TMPDIR SSH_AUTH_SOCK SYSTEMROOT COMSPEC";
+
+    public CommandLauncherConfiguration() {
+        load();
+    }
+
+    public static CommandLauncherConfiguration get() {
+        return ExtensionList.lookupSingleton(CommandLauncherConfiguration.class);
+    }
+
+    public int getMaxConcurrentLaunches() {
+        return maxConcurrentLaunches;
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentLaunches(int maxConcurrentLaunches) {
+        this.maxConcurrentLaunches = Math.max(0, maxConcurrentLaunches);
+        save();
+    }
+
+    public int getStderrTailSize() {
+        return stderrTailSize;
+    }
+
+    @DataBoundSetter
+    public void setStderrTailSize(int stderrTailSize) {
+        this.stderrTailSize = Math.max(0, stderrTailSize);
+        save();
+    }
+
+    public int getStderrRateLimit() {
+        return stderrRateLimit;
+    }
+
+    @DataBoundSetter
+    public void setStderrRateLimit(int stderrRateLimit) {
+        this.stderrRateLimit = Math.max(0, stderrRateLimit);
+        save();
+    }
+
+    public String getEnvironmentAllowlist() {
+        return environmentAllowlist;
+    }
+
+    @DataBoundSetter
+    public void setEnvironmentAllowlist(String environmentAllowlist) {
+        this.environmentAllowlist = Util.fixNull(environmentAllowlist).trim();
+        save();
+    }
+
+    /**
+     * The names in {@link #getEnvironmentAllowlist()}.
+     */
+    @NonNull
+    public Set<String> getEnvironmentAllowlistNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : Util.fixNull(environmentAllowlist).split("[\\s,]+")) {
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    public String getFailFastPatterns() {
+        return failFastPatterns;
+    }
+
+    @DataBoundSetter
+    public void setFailFastPatterns(String failFastPatterns) {
+        this.failFastPatterns = Util.fixEmptyAndTrim(failFastPatterns);
+        this.compiledFailFastPatterns = null;
+        save();
+    }
+
+    /**
+     * The compiled {@link #getFailFastPatterns()}; invalid expressions are skipped.
+     */
+    @NonNull
+    List<Pattern> getFailFastPatternList() {
+        List<Pattern> compiled = compiledFailFastPatterns;
+        if (compiled == null) {
+            compiled = new ArrayList<>();
+            for (String line : Util.fixNull(failFastPatterns).split("\\r?\\n")) {
+                if (!line.trim().isEmpty()) {
+                    try {
+                        compiled.add(Pattern.compile(line.trim()));
+                    } catch (PatternSyntaxException e) {
+                        LOGGER.log(Level.WARNING, "invalid fail-fast pattern: " + line, e);
+                    }
+                }
+            }
+            compiledFailFastPatterns = compiled = Collections.unmodifiableList(compiled);
+        }
+        return compiled;
+    }
+
+    public FormValidation doCheckFailFastPatterns(@QueryParameter String value) {
+        for (String line : Util.fixNull(value).split("\\r?\\n")) {
+            if (!line.trim().isEmpty()) {
+                try {
+                    Pattern.compile(line.trim());
+                } catch (PatternSyntaxException e) {
+                    return FormValidation.error(e.getDescription());
+                }
+            }
+        }
+        return FormValidation.ok();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(CommandLauncherConfiguration.class.getName());
+}
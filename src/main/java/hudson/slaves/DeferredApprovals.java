@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.BulkChange;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ApprovalContext;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.SystemCommandLanguage;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Registers the commands of launchers and connectors loaded from disk with {@link ScriptApproval}.
+ * <p>
+ * While Jenkins starts up, the commands are only collected, and registered in one batch once all nodes and clouds are loaded:
+ * many nodes usually share a few distinct commands, and the batch saves {@link ScriptApproval} at most once.
+ * Everything loaded during startup is loaded as {@code SYSTEM}, so the batch may approve them all at once.
+ * After startup, each command is registered right away on the thread loading it,
+ * so that it is only approved if the user doing so may approve it.
+ */
+@Restricted(NoExternalUse.class)
+public final class DeferredApprovals {
+
+    private static final Set<String> PENDING = new HashSet<>();
+    private static int loaded;
+    /** Whether the commands loaded during startup were registered. */
+    private static boolean started;
+
+    private DeferredApprovals() {}
+
+    /**
+     * Registers a command that was loaded from disk.
+     */
+    static void configuring(@NonNull String command) {
+        synchronized (DeferredApprovals.class) {
+            Jenkins j = Jenkins.getInstanceOrNull();
+            if (!started && (j == null || j.getInitLevel().compareTo(InitMilestone.JOB_CONFIG_ADAPTED) < 0)) {
+                PENDING.add(command);
+                loaded++;
+                return;
+            }
+        }
+        ScriptApproval.get().configuring(command, SystemCommandLanguage.get(), ApprovalContext.create(), true);
+    }
+
+    /**
+     * Registers all commands collected during startup.
+     */
+    private static void flush() {
+        synchronized (DeferredApprovals.class) {
+            started = true;
+            if (PENDING.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            int registered = 0;
+            ScriptApproval approval = ScriptApproval.get();
+            try (BulkChange bc = new BulkChange(approval)) {
+                for (Iterator<String> it = PENDING.iterator(); it.hasNext(); ) {
+                    String command = it.next();
+                    it.remove();
+                    approval.configuring(command, SystemCommandLanguage.get(), ApprovalContext.create(), true);
+                    registered++;
+                }
+                bc.commit();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to save script approvals", e);
+            }
+            LOGGER.log(registered > 1 ? Level.INFO : Level.FINE, "Registered {0} distinct commands of {1} loaded command launchers and connectors for script approval in {2} ms",
+                    new Object[] {registered, loaded, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)});
+            loaded = 0;
+        }
+    }
+
+    @Initializer(after = InitMilestone.JOB_CONFIG_ADAPTED)
+    public static void registerLoadedCommands() {
+        flush();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(DeferredApprovals.class.getName());
+}
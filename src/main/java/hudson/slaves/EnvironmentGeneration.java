@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import java.util.concurrent.atomic.AtomicLong;
+import jenkins.model.JenkinsLocationConfiguration;
+
+/**
+ * Counts changes to the settings the launch environment is computed from, so that launchers can reuse it until one changes.
+ * These are the Jenkins URL, the {@link CommandLauncherConfiguration} and the {@link AgentJarCache}.
+ */
+final class EnvironmentGeneration {
+
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private EnvironmentGeneration() {}
+
+    /**
+     * The current generation; changes whenever the launch environment may have changed.
+     */
+    static long current() {
+        return GENERATION.get();
+    }
+
+    /**
+     * Starts a new generation.
+     */
+    static void bump() {
+        GENERATION.incrementAndGet();
+    }
+
+    @Extension
+    public static final class Listener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof JenkinsLocationConfiguration || o instanceof CommandLauncherConfiguration) {
+                bump();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.Extension;
+import hudson.Functions;
+import hudson.model.AdministrativeMonitor;
+import org.jenkinsci.plugins.command_launcher.Messages;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Warns when the controller JVM forks to start processes.
+ * <p>
+ * By default the JDK starts processes through {@code posix_spawn}, which does not copy the page tables of the controller,
+ * so the cost of a {@link CommandLauncher} launch does not grow with the heap size.
+ * With {@code -Djdk.lang.Process.launchMechanism=FORK} every launch forks the whole controller JVM instead.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class ForkLaunchMechanismMonitor extends AdministrativeMonitor {
+
+    @Override
+    public boolean isActivated() {
+        return !Functions.isWindows() && "FORK".equalsIgnoreCase(System.getProperty("jdk.lang.Process.launchMechanism"));
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.ForkLaunchMechanismMonitor_displayName();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link LaunchThrottle}s of the hosts that {@link CommandConnector}s launch agents on.
+ * <p>
+ * Throttles are keyed by the host passed to {@link CommandConnector#launch}, so connectors sharing a host share its limits;
+ * the limits of the connector that launched last apply.
+ * A throttle is dropped once no launch used it for {@link #IDLE_MINUTES}, so that renamed or removed hosts do not linger.
+ */
+final class HostLaunchThrottles {
+
+    private static final ConcurrentMap<String, HostLaunchThrottles> HOSTS = new ConcurrentHashMap<>();
+
+    /**
+     * Minutes after which the throttle of a host that is not launched on is dropped.
+     */
+    static final long IDLE_MINUTES = 60;
+
+    private static volatile long lastEviction = System.nanoTime();
+
+    private volatile int maxConcurrentLaunches;
+    private volatile long launchSpacingMillis;
+    private volatile long lastUsed = System.nanoTime();
+    private final LaunchThrottle throttle;
+
+    private HostLaunchThrottles(String host) {
+        throttle = new LaunchThrottle(host, () -> maxConcurrentLaunches, () -> launchSpacingMillis);
+    }
+
+    /**
+     * Gets the throttle of a host, applying the given limits to it.
+     *
+     * @param maxConcurrentLaunches maximum number of launches in progress on the host; zero means unlimited
+     * @param launchSpacingMillis   minimum time between two launches on the host; zero means none
+     */
+    @NonNull
+    static LaunchThrottle get(@NonNull String host, int maxConcurrentLaunches, long launchSpacingMillis) {
+        evictIdle();
+        HostLaunchThrottles h = HOSTS.compute(host, (k, existing) -> {
+            HostLaunchThrottles result = existing != null ? existing : new HostLaunchThrottles(k);
+            result.lastUsed = System.nanoTime();
+            return result;
+        });
+        h.maxConcurrentLaunches = maxConcurrentLaunches;
+        h.launchSpacingMillis = launchSpacingMillis;
+        return h.throttle;
+    }
+
+    /**
+     * Drops the throttles of hosts that were not launched on for {@link #IDLE_MINUTES}, at most once a minute.
+     */
+    private static void evictIdle() {
+        long now = System.nanoTime();
+        if (now - lastEviction < TimeUnit.MINUTES.toNanos(1)) {
+            return;
+        }
+        lastEviction = now;
+        for (String host : HOSTS.keySet()) {
+            // atomically with get, so that a throttle about to be used again is kept
+            HOSTS.computeIfPresent(host, (k, h) -> h.isIdle(now) ? null : h);
+        }
+    }
+
+    private boolean isIdle(long now) {
+        return now - lastUsed > TimeUnit.MINUTES.toNanos(IDLE_MINUTES) && throttle.getActive() == 0 && throttle.getQueueLength() == 0;
+    }
+
+    /**
+     * Throttles of all hosts launched on recently, sorted by host.
+     */
+    @NonNull
+    static List<LaunchThrottle> all() {
+        evictIdle();
+        List<LaunchThrottle> result = new ArrayList<>();
+        HOSTS.values().forEach(h -> result.add(h.throttle));
+        result.sort(Comparator.comparing(LaunchThrottle::getName));
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+/**
+ * Why a {@link CommandLauncher} launch failed.
+ */
+public enum LaunchFailure {
+    /** The launch command is not approved. */
+    UNAPPROVED,
+    /** The launch command could not be started. */
+    SPAWN_FAILED,
+    /** The launched process terminated before the channel was established. */
+    PROCESS_EXITED,
+    /** The launched process wrote a line matching one of the {@linkplain CommandLauncherConfiguration#getFailFastPatterns fail-fast patterns}. */
+    STDERR_PATTERN,
+    /** The channel was not established within the handshake timeout. */
+    HANDSHAKE_TIMEOUT,
+    /** The channel could not be established although the launched process kept running. */
+    CHANNEL_FAILED,
+    /** The launch was interrupted. */
+    ABORTED,
+    /** The launch failed with an unexpected error. */
+    UNEXPECTED
+}
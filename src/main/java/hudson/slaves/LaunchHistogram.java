@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.util.ArrayList;
+import java.util.List;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Distribution of durations over fixed, roughly exponential buckets.
+ */
+@ExportedBean(defaultVisibility = 3)
+@Restricted(NoExternalUse.class)
+public final class LaunchHistogram {
+
+    /**
+     * Inclusive upper bounds of the buckets in milliseconds; a final bucket collects everything above.
+     */
+    private static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000, 300000};
+
+    private final String name;
+    private final long[] counts = new long[BOUNDS.length + 1];
+    private long count;
+    private long totalMillis;
+    private long maxMillis;
+
+    LaunchHistogram(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long millis) {
+        int i = 0;
+        while (i < BOUNDS.length && millis > BOUNDS[i]) {
+            i++;
+        }
+        counts[i]++;
+        count++;
+        totalMillis += millis;
+        maxMillis = Math.max(maxMillis, millis);
+    }
+
+    @Exported
+    public String getName() {
+        return name;
+    }
+
+    @Exported
+    public synchronized long getCount() {
+        return count;
+    }
+
+    @Exported
+    public synchronized long getTotalMillis() {
+        return totalMillis;
+    }
+
+    @Exported
+    public synchronized long getMeanMillis() {
+        return count == 0 ? 0 : totalMillis / count;
+    }
+
+    @Exported
+    public synchronized long getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * Non-empty buckets, in ascending order.
+     */
+    @Exported(inline = true)
+    public synchronized List<Bucket> getBuckets() {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                buckets.add(new Bucket(i < BOUNDS.length ? BOUNDS[i] : null, counts[i]));
+            }
+        }
+        return buckets;
+    }
+
+    @ExportedBean(defaultVisibility = 3)
+    @Restricted(NoExternalUse.class)
+    public static final class Bucket {
+        private final Long upperBoundMillis;
+        private final long count;
+
+        Bucket(Long upperBoundMillis, long count) {
+            this.upperBoundMillis = upperBoundMillis;
+            this.count = count;
+        }
+
+        /**
+         * Inclusive upper bound of this bucket, or null for the overflow bucket.
+         */
+        @Exported
+        @CheckForNull
+        public Long getUpperBoundMillis() {
+            return upperBoundMillis;
+        }
+
+        @Exported
+        public long getCount() {
+            return count;
+        }
+    }
+}
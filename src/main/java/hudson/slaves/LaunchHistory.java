@@ -0,0 +1,285 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * The most recent launches of a node, kept in a fixed-size ring buffer.
+ * <p>
+ * Every launch is appended as a line to a file next to the node configuration, which is read back on first access
+ * after a restart. The file is rewritten from the buffer once it has grown to twice the buffer size.
+ */
+@ExportedBean(defaultVisibility = 2)
+@Restricted(NoExternalUse.class)
+public final class LaunchHistory {
+
+    /**
+     * Number of launches kept per node.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    static /* not final */ int SIZE = SystemProperties.getInteger(LaunchHistory.class.getName() + ".size", 100);
+
+    static final String FILE_NAME = "command-launcher-history.log";
+
+    @CheckForNull
+    private final Path file;
+    private final LaunchRecord[] ring;
+    private int next;
+    private int size;
+    private int lines;
+
+    LaunchHistory(@CheckForNull Path file) {
+        this.file = file;
+        this.ring = new LaunchRecord[Math.max(1, SIZE)];
+    }
+
+    /**
+     * Creates the history of a node, with the launches recorded in the given file.
+     */
+    @NonNull
+    static LaunchHistory load(@CheckForNull Path file) {
+        LaunchHistory history = new LaunchHistory(file);
+        if (file != null) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    LaunchRecord record = parse(line);
+                    if (record != null) {
+                        history.remember(record);
+                    }
+                    history.lines++;
+                }
+            } catch (NoSuchFileException e) {
+                // no launches yet
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to read " + file, e);
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Adds a launch to the history.
+     */
+    synchronized void add(@NonNull LaunchRecord record) {
+        remember(record);
+        if (file == null) {
+            return;
+        }
+        try {
+            if (lines >= 2 * ring.length) {
+                rewrite();
+            } else {
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, format(record) + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                lines++;
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write " + file, e);
+        }
+    }
+
+    private void remember(LaunchRecord record) {
+        ring[next] = record;
+        next = (next + 1) % ring.length;
+        size = Math.min(size + 1, ring.length);
+    }
+
+    private void rewrite() throws IOException {
+        Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+        List<LaunchRecord> records = getRecords();
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (int i = records.size() - 1; i >= 0; i--) {
+                w.write(format(records.get(i)));
+                w.write('\n');
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lines = records.size();
+    }
+
+    /**
+     * Recorded launches, most recent first.
+     */
+    @Exported
+    @NonNull
+    public synchronized List<LaunchRecord> getRecords() {
+        List<LaunchRecord> result = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            result.add(ring[Math.floorMod(next - i, ring.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * Failed launches among the recorded ones.
+     */
+    @Exported
+    public long getFailures() {
+        return getRecords().stream().filter(r -> !r.isSucceeded()).count();
+    }
+
+    /**
+     * Percentiles of the total launch time and of every phase over the recorded launches.
+     */
+    @Exported
+    @NonNull
+    public List<Percentiles> getPercentiles() {
+        List<LaunchRecord> records = getRecords();
+        List<Percentiles> result = new ArrayList<>();
+        result.add(Percentiles.of("TOTAL", records, LaunchRecord::getTotalMillis));
+        for (LaunchPhase phase : LaunchPhase.values()) {
+            result.add(Percentiles.of(phase.name(), records, r -> r.getMillis(phase)));
+        }
+        return result;
+    }
+
+    /**
+     * Line format: start time, failure or {@code OK}, exit code or {@code -}, total milliseconds, then {@code PHASE=millis} pairs, separated by tabs.
+     */
+    @NonNull
+    static String format(@NonNull LaunchRecord record) {
+        StringBuilder b = new StringBuilder();
+        b.append(record.getStartedAt()).append('\t');
+        b.append(record.getFailure() == null ? "OK" : record.getFailure().name()).append('\t');
+        b.append(record.getExitCode() == null ? "-" : record.getExitCode().toString()).append('\t');
+        b.append(record.getTotalMillis());
+        record.getPhaseMillis().forEach((phase, millis) -> b.append('\t').append(phase.name()).append('=').append(millis));
+        return b.toString();
+    }
+
+    @CheckForNull
+    static LaunchRecord parse(@NonNull String line) {
+        String[] fields = line.split("\t");
+        if (fields.length < 4) {
+            return null;
+        }
+        try {
+            long startedAt = Long.parseLong(fields[0]);
+            LaunchFailure failure = fields[1].equals("OK") ? null : LaunchFailure.valueOf(fields[1]);
+            Integer exitCode = fields[2].equals("-") ? null : Integer.valueOf(fields[2]);
+            long totalMillis = Long.parseLong(fields[3]);
+            Map<LaunchPhase, Long> phases = new EnumMap<>(LaunchPhase.class);
+            for (String field : Arrays.asList(fields).subList(4, fields.length)) {
+                int eq = field.indexOf('=');
+                phases.put(LaunchPhase.valueOf(field.substring(0, eq)), Long.parseLong(field.substring(eq + 1)));
+            }
+            return new LaunchRecord(startedAt, totalMillis, failure, exitCode, phases);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            LOGGER.log(Level.FINE, "Skipping malformed launch record: " + line, e);
+            return null;
+        }
+    }
+
+    /**
+     * Distribution of a duration over the recorded launches.
+     */
+    @ExportedBean(defaultVisibility = 3)
+    @Restricted(NoExternalUse.class)
+    public static final class Percentiles {
+        private final String name;
+        private final long[] sorted;
+
+        private Percentiles(String name, long[] sorted) {
+            this.name = name;
+            this.sorted = sorted;
+        }
+
+        static Percentiles of(String name, List<LaunchRecord> records, Function<LaunchRecord, Long> millis) {
+            return new Percentiles(name, records.stream().map(millis).filter(m -> m != null).mapToLong(Long::longValue).sorted().toArray());
+        }
+
+        /**
+         * The phase, or {@code TOTAL} for the whole launch.
+         */
+        @Exported
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Number of launches that completed this phase.
+         */
+        @Exported
+        public int getCount() {
+            return sorted.length;
+        }
+
+        @Exported
+        public long getP50() {
+            return percentile(50);
+        }
+
+        @Exported
+        public long getP90() {
+            return percentile(90);
+        }
+
+        @Exported
+        public long getP99() {
+            return percentile(99);
+        }
+
+        @Exported
+        public long getMax() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        }
+
+        /**
+         * Nearest-rank percentile in milliseconds, or zero without data.
+         */
+        long percentile(int p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(LaunchHistory.class.getName());
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Api;
+import hudson.model.Computer;
+import hudson.model.TransientComputerActionFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.jenkinsci.plugins.command_launcher.Messages;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Shows the {@link LaunchHistory} of a node launched by a {@link CommandLauncher},
+ * at {@code computer/NAME/launch-history}, with the REST API at {@code computer/NAME/launch-history/api/json}.
+ */
+@Restricted(NoExternalUse.class)
+public class LaunchHistoryAction implements Action {
+
+    private final Computer computer;
+
+    LaunchHistoryAction(@NonNull Computer computer) {
+        this.computer = computer;
+    }
+
+    public Computer getComputer() {
+        return computer;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return computer.hasPermission(Computer.EXTENDED_READ) ? "clipboard.png" : null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.LaunchHistoryAction_displayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "launch-history";
+    }
+
+    @NonNull
+    public LaunchHistory getHistory() {
+        computer.checkPermission(Computer.EXTENDED_READ);
+        return LaunchStatistics.get().getHistory(computer.getName());
+    }
+
+    public List<LaunchPhase> getPhases() {
+        return List.of(LaunchPhase.values());
+    }
+
+    public Api getApi() {
+        return new Api(getHistory());
+    }
+
+    @Extension
+    public static class Factory extends TransientComputerActionFactory {
+        @Override
+        public Collection<? extends Action> createFor(Computer target) {
+            if (target instanceof SlaveComputer && ((SlaveComputer) target).getLauncher() instanceof CommandLauncher) {
+                return Collections.singletonList(new LaunchHistoryAction(target));
+            }
+            return Collections.emptyList();
+        }
+    }
+}
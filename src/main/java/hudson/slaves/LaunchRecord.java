@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * The outcome of a single launch, as kept in the {@link LaunchHistory}.
+ */
+@ExportedBean(defaultVisibility = 3)
+@Restricted(NoExternalUse.class)
+public final class LaunchRecord {
+
+    private final long startedAt;
+    private final long totalMillis;
+    @CheckForNull
+    private final LaunchFailure failure;
+    @CheckForNull
+    private final Integer exitCode;
+    private final Map<LaunchPhase, Long> phases;
+
+    LaunchRecord(long startedAt, long totalMillis, @CheckForNull LaunchFailure failure, @CheckForNull Integer exitCode, @NonNull Map<LaunchPhase, Long> phases) {
+        this.startedAt = startedAt;
+        this.totalMillis = totalMillis;
+        this.failure = failure;
+        this.exitCode = exitCode;
+        this.phases = Collections.unmodifiableMap(phases);
+    }
+
+    @NonNull
+    static LaunchRecord of(@NonNull LaunchTrace trace) {
+        Map<LaunchPhase, Long> phases = new EnumMap<>(LaunchPhase.class);
+        for (LaunchPhase phase : LaunchPhase.values()) {
+            Long millis = trace.getMillis(phase);
+            if (millis != null) {
+                phases.put(phase, millis);
+            }
+        }
+        LaunchFailure failure = trace.isSucceeded() ? null : trace.getFailure();
+        if (!trace.isSucceeded() && failure == null) {
+            // e.g. an empty launch command
+            failure = LaunchFailure.CHANNEL_FAILED;
+        }
+        return new LaunchRecord(trace.getStartedAt(), trace.getElapsedMillis(), failure, trace.getExitCode(), phases);
+    }
+
+    /**
+     * When the launch started, in milliseconds since the epoch.
+     */
+    @Exported
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public Date getStartDate() {
+        return new Date(startedAt);
+    }
+
+    /**
+     * How long the launch took in milliseconds.
+     */
+    @Exported
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    @Exported
+    public boolean isSucceeded() {
+        return failure == null;
+    }
+
+    /**
+     * Why the launch failed, or null if it succeeded.
+     */
+    @Exported
+    @CheckForNull
+    public LaunchFailure getFailure() {
+        return failure;
+    }
+
+    /**
+     * Exit code of the launched process if it terminated during the launch.
+     */
+    @Exported
+    @CheckForNull
+    public Integer getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Duration in milliseconds of the given phase, or null if it did not complete.
+     */
+    @CheckForNull
+    public Long getMillis(@NonNull LaunchPhase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * Durations of the phases that completed.
+     */
+    @Exported
+    public List<PhaseDuration> getPhases() {
+        List<PhaseDuration> result = new ArrayList<>();
+        phases.forEach((phase, millis) -> result.add(new PhaseDuration(phase, millis)));
+        return result;
+    }
+
+    @NonNull
+    Map<LaunchPhase, Long> getPhaseMillis() {
+        return phases;
+    }
+
+    @ExportedBean(defaultVisibility = 4)
+    @Restricted(NoExternalUse.class)
+    public static final class PhaseDuration {
+        private final LaunchPhase phase;
+        private final long millis;
+
+        PhaseDuration(LaunchPhase phase, long millis) {
+            this.phase = phase;
+            this.millis = millis;
+        }
+
+        @Exported
+        public LaunchPhase getPhase() {
+            return phase;
+        }
+
+        @Exported
+        public long getMillis() {
+            return millis;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.command_launcher.Messages;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Decides whether and when a failed {@link CommandLauncher} launch is attempted again.
+ * <p>
+ * Delays grow exponentially from {@link #getInitialDelay()} up to {@link #getMaxDelay()},
+ * and each delay is randomized between half and all of its nominal value so that agents
+ * failing together do not all retry at the same moment.
+ */
+public class LaunchRetryPolicy extends AbstractDescribableImpl<LaunchRetryPolicy> {
+
+    private final int maxAttempts;
+    private int initialDelay = 5;
+    private int maxDelay = 300;
+    private String exitCodes;
+    private String stderrPattern;
+
+    private transient Set<Integer> exitCodeSet;
+    private transient Pattern compiledStderrPattern;
+
+    /**
+     * @param maxAttempts total number of launch attempts, including the first one
+     */
+    @DataBoundConstructor
+    public LaunchRetryPolicy(int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Seconds to wait before the first retry.
+     */
+    public int getInitialDelay() {
+        return initialDelay;
+    }
+
+    @DataBoundSetter
+    public void setInitialDelay(int initialDelay) {
+        this.initialDelay = Math.max(0, initialDelay);
+    }
+
+    /**
+     * Upper bound in seconds for the delay between two attempts.
+     */
+    public int getMaxDelay() {
+        return maxDelay;
+    }
+
+    @DataBoundSetter
+    public void setMaxDelay(int maxDelay) {
+        this.maxDelay = Math.max(0, maxDelay);
+    }
+
+    /**
+     * Comma-separated exit codes of the launched process that warrant a retry.
+     */
+    @CheckForNull
+    public String getExitCodes() {
+        return exitCodes;
+    }
+
+    @DataBoundSetter
+    public void setExitCodes(@CheckForNull String exitCodes) {
+        this.exitCodes = Util.fixEmptyAndTrim(exitCodes);
+        this.exitCodeSet = null;
+    }
+
+    /**
+     * Regular expression found in the standard error of the launched process that warrants a retry.
+     */
+    @CheckForNull
+    public String getStderrPattern() {
+        return stderrPattern;
+    }
+
+    @DataBoundSetter
+    public void setStderrPattern(@CheckForNull String stderrPattern) {
+        this.stderrPattern = Util.fixEmptyAndTrim(stderrPattern);
+        this.compiledStderrPattern = null;
+    }
+
+    /**
+     * Whether the standard error of failed attempts is needed to decide on a retry.
+     */
+    boolean isStderrPatternSet() {
+        return stderrPattern != null;
+    }
+
+    /**
+     * Decides whether a failed attempt should be retried.
+     * Without exit codes or a pattern, every failure is retried;
+     * otherwise the failure has to match either of them.
+     *
+     * @param attempt  the number of the attempt that failed, starting at 1
+     * @param exitCode the exit code of the launched process, if it terminated
+     * @param stderr   the last output of the launched process on standard error
+     */
+    boolean shouldRetry(int attempt, @CheckForNull Integer exitCode, @NonNull String stderr) {
+        if (attempt >= maxAttempts) {
+            return false;
+        }
+        if (exitCodes == null && stderrPattern == null) {
+            return true;
+        }
+        if (exitCodes != null && exitCode != null && getExitCodeSet().contains(exitCode)) {
+            return true;
+        }
+        if (stderrPattern != null) {
+            try {
+                return getCompiledStderrPattern().matcher(stderr).find();
+            } catch (PatternSyntaxException e) {
+                LOGGER.log(Level.WARNING, "invalid stderr pattern for launch retries: " + stderrPattern, e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Randomized delay before the next attempt.
+     *
+     * @param attempt the number of the attempt that failed, starting at 1
+     */
+    long getDelayMillis(int attempt) {
+        long cap = TimeUnit.SECONDS.toMillis(maxDelay);
+        long nominal = Math.min(cap, TimeUnit.SECONDS.toMillis(initialDelay) << Math.min(attempt - 1, 20));
+        if (nominal <= 0) {
+            return 0;
+        }
+        return nominal / 2 + ThreadLocalRandom.current().nextLong(nominal / 2 + 1);
+    }
+
+    private Set<Integer> getExitCodeSet() {
+        if (exitCodeSet == null) {
+            Set<Integer> codes = new HashSet<>();
+            for (String code : exitCodes.split(",")) {
+                try {
+                    codes.add(Integer.valueOf(code.trim()));
+                } catch (NumberFormatException e) {
+                    // ignore; reported by form validation
+                }
+            }
+            exitCodeSet = codes;
+        }
+        return exitCodeSet;
+    }
+
+    private Pattern getCompiledStderrPattern() {
+        if (compiledStderrPattern == null) {
+            compiledStderrPattern = Pattern.compile(stderrPattern);
+        }
+        return compiledStderrPattern;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(LaunchRetryPolicy.class.getName());
+
+    @Extension @Symbol("retry")
+    public static class DescriptorImpl extends Descriptor<LaunchRetryPolicy> {
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.LaunchRetryPolicy_displayName();
+        }
+
+        public FormValidation doCheckMaxAttempts(@QueryParameter int value) {
+            return value < 1 ? FormValidation.error(Messages.LaunchRetryPolicy_invalidMaxAttempts()) : FormValidation.ok();
+        }
+
+        public FormValidation doCheckExitCodes(@QueryParameter String value) {
+            if (Util.fixEmptyAndTrim(value) != null) {
+                for (String code : value.split(",")) {
+                    try {
+                        Integer.parseInt(code.trim());
+                    } catch (NumberFormatException e) {
+                        return FormValidation.error(Messages.LaunchRetryPolicy_invalidExitCode(code.trim()));
+                    }
+                }
+            }
+            return FormValidation.ok();
+        }
+
+        public FormValidation doCheckStderrPattern(@QueryParameter String value) {
+            if (Util.fixEmptyAndTrim(value) != null) {
+                try {
+                    Pattern.compile(value.trim());
+                } catch (PatternSyntaxException e) {
+                    return FormValidation.error(e.getDescription());
+                }
+            }
+            return FormValidation.ok();
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.Util;
+import hudson.model.Api;
+import hudson.model.Node;
+import hudson.model.RootAction;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import jenkins.model.Jenkins;
+import jenkins.model.NodeListener;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.command_launcher.Messages;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerProxy;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Collects launch timings and channel traffic of all {@link CommandLauncher}s, in aggregate and per node.
+ * <p>
+ * Exposed through the REST API at {@code /command-launcher/api/json},
+ * and for a single node at {@code /command-launcher/node/NAME/api/json}.
+ * Agents can be relaunched in bulk by posting to {@code /command-launcher/relaunch}.
+ */
+@Extension
+@ExportedBean
+@Restricted(NoExternalUse.class)
+public class LaunchStatistics implements RootAction, StaplerProxy {
+
+    private final Summary aggregate = new Summary(null);
+    private final ConcurrentMap<String, Summary> nodes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LaunchHistory> histories = new ConcurrentHashMap<>();
+    private final LaunchHistogram treeTeardowns = new LaunchHistogram("TREE");
+    private final LaunchHistogram scanTeardowns = new LaunchHistogram("COOKIE_SCAN");
+
+    @NonNull
+    public static LaunchStatistics get() {
+        return ExtensionList.lookupSingleton(LaunchStatistics.class);
+    }
+
+    /**
+     * Records a finished launch.
+     */
+    void record(@NonNull LaunchTrace trace) {
+        aggregate.record(trace);
+        nodes.computeIfAbsent(trace.getNodeName(), Summary::new).record(trace);
+        getHistory(trace.getNodeName()).add(LaunchRecord.of(trace));
+    }
+
+    /**
+     * Recent launches of a node, loaded from disk on first access.
+     */
+    @NonNull
+    LaunchHistory getHistory(@NonNull String nodeName) {
+        return histories.computeIfAbsent(nodeName, n -> {
+            Jenkins j = Jenkins.getInstanceOrNull();
+            return LaunchHistory.load(j == null ? null : j.getRootDir().toPath().resolve("nodes").resolve(n).resolve(LaunchHistory.FILE_NAME));
+        });
+    }
+
+    /**
+     * Summaries that the channel traffic of a node is counted into.
+     */
+    @NonNull
+    Summary[] trafficSummaries(@NonNull String nodeName) {
+        return new Summary[] {aggregate, nodes.computeIfAbsent(nodeName, Summary::new)};
+    }
+
+    /**
+     * Records how long it took to kill a launched process tree.
+     *
+     * @param scanned whether all processes had to be scanned for the launch cookie
+     */
+    void recordTeardown(boolean scanned, long millis) {
+        (scanned ? scanTeardowns : treeTeardowns).record(millis);
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.LaunchStatistics_displayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "command-launcher";
+    }
+
+    @Override
+    public Object getTarget() {
+        // relaunching checks its own permissions, the same as the CLI command does
+        StaplerRequest2 req = Stapler.getCurrentRequest2();
+        if (req == null || !"/relaunch".equals(req.getRestOfPath())) {
+            Jenkins.get().checkPermission(Jenkins.SYSTEM_READ);
+        }
+        return this;
+    }
+
+    public Api getApi() {
+        return new Api(this);
+    }
+
+    /**
+     * State of the controller-wide launch queue.
+     */
+    @Exported
+    public LaunchThrottle getLaunchQueue() {
+        return CommandLauncher.THROTTLE;
+    }
+
+    /**
+     * State of the per-host launch queues of {@link CommandConnector}s that limit them.
+     */
+    @Exported
+    public List<LaunchThrottle> getHostLaunchQueues() {
+        return HostLaunchThrottles.all();
+    }
+
+    /**
+     * State of the teardown of launched processes whose agents went away.
+     */
+    @Exported
+    public ProcessReaper getReaper() {
+        return ProcessReaper.INSTANCE;
+    }
+
+    /**
+     * Timings of all launches.
+     */
+    @Exported
+    public Summary getAggregate() {
+        return aggregate;
+    }
+
+    /**
+     * Timings per node, sorted by node name.
+     */
+    @Exported
+    public List<Summary> getNodes() {
+        List<Summary> result = new ArrayList<>(nodes.values());
+        result.sort(Comparator.comparing(Summary::getNodeName));
+        return result;
+    }
+
+    /**
+     * Time taken to kill launched process trees, by whether the process tree was walked directly before the cookie scan,
+     * or could only be found by the cookie scan.
+     */
+    @Exported
+    public List<LaunchHistogram> getTeardowns() {
+        return List.of(treeTeardowns, scanTeardowns);
+    }
+
+    /**
+     * Timings of a single node, bound to {@code node/NAME}.
+     */
+    @CheckForNull
+    public Summary getNode(String name) {
+        return nodes.get(name);
+    }
+
+    /**
+     * Relaunches the agents named in {@code nodes} (separated by whitespace or commas) and those matching {@code label},
+     * like {@link RelaunchCommandAgentsCommand}.
+     * Streams one JSON object per agent as its outcome becomes known, then one with the summary of all of them.
+     * The request is answered while the agents are relaunched, so it takes up to {@code timeout} seconds
+     * for every {@code concurrency} agents; clients should read the response as it is streamed rather than set a short timeout.
+     */
+    @RequirePOST
+    public void doRelaunch(StaplerResponse2 rsp, @QueryParameter String label, @QueryParameter String nodes,
+                           @QueryParameter int concurrency, @QueryParameter int timeout) throws IOException, InterruptedException {
+        List<String> names = new ArrayList<>();
+        for (String name : Util.fixNull(nodes).split("[\\s,]+")) {
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        BulkRelaunch relaunch;
+        try {
+            relaunch = BulkRelaunch.select(label, names, concurrency, timeout);
+        } catch (IllegalArgumentException e) {
+            rsp.sendError(StaplerResponse2.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        rsp.setContentType("application/x-ndjson;charset=UTF-8");
+        PrintWriter w = rsp.getWriter();
+        long start = System.nanoTime();
+        List<BulkRelaunch.Result> results = relaunch.run(result -> {
+            w.println(result.toJSON());
+            w.flush();
+        });
+        JSONObject summary = new JSONObject();
+        summary.put("millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        JSONObject outcomes = new JSONObject();
+        BulkRelaunch.count(results).forEach((outcome, count) -> outcomes.put(outcome.name(), count));
+        summary.put("outcomes", outcomes);
+        JSONArray all = new JSONArray();
+        for (BulkRelaunch.Result result : results) {
+            all.add(result.toJSON());
+        }
+        summary.put("results", all);
+        w.println(summary);
+        w.flush();
+    }
+
+    /**
+     * Launch timings of one node, or of all nodes together.
+     */
+    @ExportedBean(defaultVisibility = 2)
+    @Restricted(NoExternalUse.class)
+    public static final class Summary {
+        private final String nodeName;
+        private final Map<LaunchPhase, LaunchHistogram> phases = new EnumMap<>(LaunchPhase.class);
+        private final Map<Integer, Long> exitCodes = new TreeMap<>();
+        private long launches;
+        private long failures;
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+
+        Summary(@CheckForNull String nodeName) {
+            this.nodeName = nodeName;
+            for (LaunchPhase phase : LaunchPhase.values()) {
+                phases.put(phase, new LaunchHistogram(phase.name()));
+            }
+        }
+
+        synchronized void record(@NonNull LaunchTrace trace) {
+            launches++;
+            if (!trace.isSucceeded()) {
+                failures++;
+                Integer exitCode = trace.getExitCode();
+                if (exitCode != null) {
+                    exitCodes.merge(exitCode, 1L, Long::sum);
+                }
+            }
+            for (Map.Entry<LaunchPhase, LaunchHistogram> e : phases.entrySet()) {
+                Long millis = trace.getMillis(e.getKey());
+                if (millis != null) {
+                    e.getValue().record(millis);
+                }
+            }
+        }
+
+        void received(long bytes) {
+            bytesReceived.add(bytes);
+        }
+
+        void sent(long bytes) {
+            bytesSent.add(bytes);
+        }
+
+        public Api getApi() {
+            return new Api(this);
+        }
+
+        /**
+         * Name of the node, or null for the aggregate over all nodes.
+         */
+        @Exported
+        @CheckForNull
+        public String getNodeName() {
+            return nodeName;
+        }
+
+        @Exported
+        public synchronized long getLaunches() {
+            return launches;
+        }
+
+        @Exported
+        public synchronized long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Bytes read from the agent over the channel streams, as seen by the controller.
+         */
+        @Exported
+        public long getBytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        /**
+         * Bytes written to the agent over the channel streams, as seen by the controller.
+         */
+        @Exported
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        @Exported
+        public List<LaunchHistogram> getPhases() {
+            return new ArrayList<>(phases.values());
+        }
+
+        /**
+         * Failed launches by exit code of the launched process.
+         */
+        @Exported
+        public synchronized List<ExitCodeCount> getFailuresByExitCode() {
+            List<ExitCodeCount> result = new ArrayList<>();
+            exitCodes.forEach((code, count) -> result.add(new ExitCodeCount(code, count)));
+            return result;
+        }
+    }
+
+    @ExportedBean(defaultVisibility = 3)
+    @Restricted(NoExternalUse.class)
+    public static final class ExitCodeCount {
+        private final int exitCode;
+        private final long count;
+
+        ExitCodeCount(int exitCode, long count) {
+            this.exitCode = exitCode;
+            this.count = count;
+        }
+
+        @Exported
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        @Exported
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Drops the statistics and history of deleted nodes; the history file goes with the node directory.
+     */
+    @Extension
+    public static class NodeDeletionListener extends NodeListener {
+        @Override
+        protected void onDeleted(@NonNull Node node) {
+            LaunchStatistics statistics = ExtensionList.lookupSingleton(LaunchStatistics.class);
+            statistics.nodes.remove(node.getNodeName());
+            statistics.histories.remove(node.getNodeName());
+        }
+    }
+}
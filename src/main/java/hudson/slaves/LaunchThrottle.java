@@ -0,0 +1,258 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Bounds the number of agent launches that may be in progress at the same time.
+ * <p>
+ * Callers are admitted strictly in arrival order, so a burst of reconnects
+ * drains in the order it was requested instead of letting late arrivals
+ * overtake launches that have been waiting longer.
+ * The limits are re-read while waiting, so configuration changes apply to queued launches as well.
+ * Optionally, consecutive admissions are spaced apart, so that a burst does not hit its target all at once.
+ */
+@ExportedBean(defaultVisibility = 2)
+@Restricted(NoExternalUse.class)
+public final class LaunchThrottle {
+
+    @CheckForNull
+    private final String name;
+    private final IntSupplier limit;
+    private final LongSupplier spacingMillis;
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Deque<Object> waiting = new ArrayDeque<>();
+
+    private int active;
+    private long admitted;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private long lastAdmittedAt;
+
+    /**
+     * @param limit supplies the maximum number of concurrent launches; zero or less means unlimited
+     */
+    LaunchThrottle(@NonNull IntSupplier limit) {
+        this(null, limit, () -> 0);
+    }
+
+    /**
+     * @param name          what the launches are throttled for, like a host name
+     * @param limit         supplies the maximum number of concurrent launches; zero or less means unlimited
+     * @param spacingMillis supplies the minimum time between two admissions; zero or less means none
+     */
+    LaunchThrottle(@CheckForNull String name, @NonNull IntSupplier limit, @NonNull LongSupplier spacingMillis) {
+        this.name = name;
+        this.limit = limit;
+        this.spacingMillis = spacingMillis;
+    }
+
+    /**
+     * Waits until a launch slot is available.
+     *
+     * @return the acquired slot, to be {@linkplain Slot#close() released} once the launch has finished
+     */
+    @NonNull
+    Slot acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        Object ticket = new Object();
+        lock.lockInterruptibly();
+        try {
+            waiting.addLast(ticket);
+            try {
+                while (true) {
+                    // bounded wait so that a raised limit is noticed even without a release
+                    long wait = ONE_SECOND;
+                    if (waiting.peekFirst() == ticket && !isFull()) {
+                        long spacing = getSpacingNanos();
+                        if (spacing <= 0) {
+                            break;
+                        }
+                        wait = Math.min(spacing, ONE_SECOND);
+                    }
+                    changed.await(wait, TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                waiting.remove(ticket);
+                changed.signalAll();
+                throw e;
+            }
+            waiting.removeFirst();
+            active++;
+            lastAdmittedAt = System.nanoTime();
+            long waited = lastAdmittedAt - start;
+            admitted++;
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+            changed.signalAll();
+            return new Slot(waited);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * How much longer the next admission has to wait to keep the spacing.
+     */
+    private long getSpacingNanos() {
+        long spacing = spacingMillis.getAsLong();
+        if (spacing <= 0 || admitted == 0) {
+            return 0;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(spacing) - (System.nanoTime() - lastAdmittedAt);
+    }
+
+    private boolean isFull() {
+        int max = limit.getAsInt();
+        return max > 0 && active >= max;
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            active--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * What the launches are throttled for, or null for the controller-wide throttle.
+     */
+    @Exported
+    @CheckForNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of launches currently holding a slot.
+     */
+    @Exported
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of launches waiting for a slot.
+     */
+    @Exported
+    public int getQueueLength() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of launches admitted so far.
+     */
+    @Exported
+    public long getAdmitted() {
+        lock.lock();
+        try {
+            return admitted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Average time in milliseconds that admitted launches waited for their slot.
+     */
+    @Exported
+    public long getAverageWaitMillis() {
+        lock.lock();
+        try {
+            return admitted == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / admitted);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Longest time in milliseconds that any launch waited for its slot.
+     */
+    @Exported
+    public long getMaxWaitMillis() {
+        lock.lock();
+        try {
+            return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A held launch slot. Closing it more than once has no further effect.
+     */
+    final class Slot implements AutoCloseable {
+        private final long waitNanos;
+        private boolean released;
+
+        private Slot(long waitNanos) {
+            this.waitNanos = waitNanos;
+        }
+
+        /**
+         * How long this launch waited before the slot was granted.
+         */
+        long getWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                release();
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of a single {@link CommandLauncher} launch.
+ */
+final class LaunchTrace {
+
+    private final String nodeName;
+    private final long startedAt = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<LaunchPhase, Long> started = new EnumMap<>(LaunchPhase.class);
+    private final Map<LaunchPhase, Long> durations = new EnumMap<>(LaunchPhase.class);
+    private LaunchPhase phase;
+    private boolean succeeded;
+    private Integer exitCode;
+    private LaunchFailure failure;
+
+    LaunchTrace(@NonNull String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    @NonNull
+    String getNodeName() {
+        return nodeName;
+    }
+
+    /**
+     * When the launch started, in milliseconds since the epoch.
+     */
+    long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Milliseconds since the launch started.
+     */
+    long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Marks the start of the given phase.
+     */
+    synchronized void enter(@NonNull LaunchPhase phase) {
+        this.phase = phase;
+        started.put(phase, System.nanoTime());
+    }
+
+    /**
+     * Marks the end of the given phase, which must have been {@linkplain #enter entered} before.
+     */
+    synchronized void exit(@NonNull LaunchPhase phase) {
+        Long start = started.get(phase);
+        if (start != null && !durations.containsKey(phase)) {
+            durations.put(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the arrival of the first byte from the launched process.
+     * Measured from the start of the {@link LaunchPhase#CHANNEL} phase.
+     */
+    synchronized void firstByte() {
+        Long start = started.get(LaunchPhase.CHANNEL);
+        if (start != null && !durations.containsKey(LaunchPhase.FIRST_BYTE)) {
+            durations.put(LaunchPhase.FIRST_BYTE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * The phase most recently entered, or null if none has started yet.
+     */
+    @CheckForNull
+    synchronized LaunchPhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Duration of the given phase in milliseconds, or null if it did not complete.
+     */
+    @CheckForNull
+    synchronized Long getMillis(@NonNull LaunchPhase phase) {
+        Long nanos = durations.get(phase);
+        return nanos == null ? null : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    synchronized void succeeded() {
+        succeeded = true;
+    }
+
+    synchronized boolean isSucceeded() {
+        return succeeded;
+    }
+
+    synchronized void setExitCode(@CheckForNull Integer exitCode) {
+        this.exitCode = exitCode;
+    }
+
+    /**
+     * Exit code of the launched process if it terminated during the launch.
+     */
+    @CheckForNull
+    synchronized Integer getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Classifies the failure of the launch, unless it was already classified.
+     */
+    synchronized void failed(@NonNull LaunchFailure failure) {
+        if (this.failure == null) {
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Why the launch failed, if it was classified.
+     */
+    @CheckForNull
+    synchronized LaunchFailure getFailure() {
+        return failure;
+    }
+
+    /**
+     * Wraps the standard output of the launched process to notice when the first byte arrives.
+     */
+    @NonNull
+    InputStream watch(@NonNull InputStream in) {
+        return new FilterInputStream(in) {
+            private boolean seen;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (!seen && b >= 0) {
+                    seen();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (!seen && n > 0) {
+                    seen();
+                }
+                return n;
+            }
+
+            private void seen() {
+                seen = true;
+                firstByte();
+            }
+        };
+    }
+}
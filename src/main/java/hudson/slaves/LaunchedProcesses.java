@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.EnvVars;
+import hudson.init.Terminator;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Processes started by {@link CommandLauncher}s that have not been torn down yet.
+ * <p>
+ * Each launched process is normally killed when its channel closes. When the controller shuts down,
+ * that would happen one channel at a time, each waiting out its own grace period.
+ * Instead, before the computers are disconnected, all remaining process trees, including standby processes,
+ * are asked to terminate at once and share a single grace period, after which the rest are killed forcibly.
+ * The channels closing afterwards find their processes already torn down.
+ */
+@Restricted(NoExternalUse.class)
+public final class LaunchedProcesses {
+
+    /** Keyed by the flag that is set once the process is torn down. */
+    private static final ConcurrentMap<AtomicBoolean, Map.Entry<Process, EnvVars>> LIVE = new ConcurrentHashMap<>();
+
+    private LaunchedProcesses() {}
+
+    /**
+     * Tracks a launched process until it is successfully {@linkplain ProcessTeardown#killOnce torn down}.
+     */
+    static void add(@NonNull Process proc, @NonNull EnvVars cookie, @NonNull AtomicBoolean done) {
+        if (!done.get()) {
+            LIVE.put(done, new AbstractMap.SimpleImmutableEntry<>(proc, cookie));
+        }
+    }
+
+    static void remove(@NonNull AtomicBoolean done) {
+        LIVE.remove(done);
+    }
+
+    /**
+     * Number of launched processes not yet torn down.
+     */
+    static int size() {
+        return LIVE.size();
+    }
+
+    /**
+     * Tears down all tracked processes, so that none of them survives the controller.
+     *
+     * @return what was done, or null if there was nothing to tear down
+     */
+    static ProcessTeardown.Batch killAll() throws InterruptedException {
+        List<Map.Entry<Process, EnvVars>> launched = new ArrayList<>();
+        for (Map.Entry<AtomicBoolean, Map.Entry<Process, EnvVars>> e : LIVE.entrySet()) {
+            // claim it, so that nobody else tears it down again;
+            // one that was claimed already is still in progress or failed, and is torn down again to be sure
+            e.getKey().set(true);
+            launched.add(e.getValue());
+            LIVE.remove(e.getKey());
+        }
+        for (StandbyPool.Standby standby : StandbyPool.takeAll()) {
+            launched.add(new AbstractMap.SimpleImmutableEntry<>(standby.proc, standby.cookie));
+        }
+        return launched.isEmpty() ? null : ProcessTeardown.killAll(launched);
+    }
+
+    @Terminator(displayName = "Tearing down command-launched agent processes")
+    public static void shutdown() {
+        long start = System.nanoTime();
+        ProcessTeardown.Batch batch;
+        try {
+            batch = killAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (batch != null) {
+            LOGGER.log(Level.INFO, "Tore down {0} launched processes in {1} ms; {2} processes were asked to terminate, {3} of them had to be killed forcibly",
+                    new Object[] {batch.launched, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), batch.signalled, batch.forced});
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(LaunchedProcesses.class.getName());
+}
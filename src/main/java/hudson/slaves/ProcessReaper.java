@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.EnvVars;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Tears down launched processes off the threads that notice they should go.
+ * <p>
+ * Killing a process tree can block for the whole {@linkplain ProcessTeardown#GRACE_SECONDS grace period},
+ * which must not happen on a remoting thread delivering a channel close, or on a timer thread,
+ * where it would hold up the events of other channels during mass disconnects.
+ * Teardowns run on a few threads of their own instead, queued without bound so that none is ever dropped.
+ * Each process stays {@linkplain LaunchedProcesses tracked} until its teardown has succeeded,
+ * so anything still queued or failed when the controller shuts down is torn down by {@link LaunchedProcesses#shutdown}.
+ */
+@ExportedBean(defaultVisibility = 2)
+@Restricted(NoExternalUse.class)
+public final class ProcessReaper {
+
+    /**
+     * Maximum number of process trees torn down at the same time.
+     */
+    static final int THREADS = Math.max(1, SystemProperties.getInteger(CommandLauncher.class.getName() + ".reaperThreads", 4));
+
+    static final ProcessReaper INSTANCE = new ProcessReaper(THREADS);
+
+    private final ThreadPoolExecutor executor;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicInteger maxQueueLength = new AtomicInteger();
+    private final LaunchHistogram queueWait = new LaunchHistogram("QUEUE_WAIT");
+
+    ProcessReaper(int threads) {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "CommandLauncher process reaper"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Tears down the given process and all processes carrying its cookie, unless that was already done.
+     *
+     * @param done   set once the process has been torn down; shared by everything that may tear down the same process
+     * @param before run on the reaper thread before the teardown, such as to report how the process terminated
+     */
+    void reap(@NonNull Process proc, @NonNull EnvVars cookie, @NonNull AtomicBoolean done, @CheckForNull Runnable before) {
+        if (done.get() && before == null) {
+            return;
+        }
+        long queuedAt = System.nanoTime();
+        submitted.increment();
+        Runnable job = () -> {
+            queueWait.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt));
+            try {
+                if (before != null) {
+                    before.run();
+                }
+                ProcessTeardown.killOnce(proc, cookie, done);
+            } catch (InterruptedException e) {
+                failed.increment();
+                LOGGER.log(Level.FINE, "interrupted while tearing down " + proc, e);
+            } catch (RuntimeException e) {
+                failed.increment();
+                LOGGER.log(Level.WARNING, "failed to tear down " + proc, e);
+            } finally {
+                completed.increment();
+            }
+        };
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            // cannot happen with an unbounded queue unless the executor was shut down
+            job.run();
+            return;
+        }
+        maxQueueLength.accumulateAndGet(executor.getQueue().size(), Math::max);
+    }
+
+    /**
+     * Number of teardowns waiting for a thread.
+     */
+    @Exported
+    public int getQueueLength() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Largest number of teardowns that were waiting for a thread at the same time.
+     */
+    @Exported
+    public int getMaxQueueLength() {
+        return maxQueueLength.get();
+    }
+
+    /**
+     * Number of teardowns in progress.
+     */
+    @Exported
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    @Exported
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @Exported
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    @Exported
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Number of completed teardowns that failed; their processes are torn down again at shutdown.
+     */
+    @Exported
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * How long teardowns waited for a thread.
+     */
+    @Exported
+    public LaunchHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ProcessReaper.class.getName());
+}
@@ -0,0 +1,272 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.EnvVars;
+import hudson.util.ProcessTree;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+/**
+ * Kills a launched process and everything it started.
+ * <p>
+ * {@link ProcessTree#killAll(Process, java.util.Map)} finds processes by scanning every process on the controller
+ * for the launch cookie, which on Linux means reading the environment of each of them.
+ * As long as the launched process is alive, its descendants can be found much more cheaply through {@link ProcessHandle},
+ * and are all asked to terminate at once, sharing a single grace period.
+ * Processes that detached themselves from the tree, such as double-forked daemons, {@code nohup} helpers
+ * or an ssh {@code ControlMaster}, are no longer descendants though, so the cookies of killed trees are collected
+ * and {@linkplain #sweep swept} for in a single scan shortly after, shared by all teardowns in the meantime.
+ * Once the launched process has terminated, its children may have been reparented out of reach, so the scan is done right away.
+ */
+final class ProcessTeardown {
+
+    /**
+     * Whether to kill the tree found through {@link ProcessHandle#descendants()} before scanning for the cookie.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    static /* not final */ boolean FAST = SystemProperties.getBoolean(CommandLauncher.class.getName() + ".fastTeardown", true);
+
+    /**
+     * Seconds given to processes to exit after being asked to terminate, before they are killed forcibly.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    static /* not final */ int GRACE_SECONDS = SystemProperties.getInteger(CommandLauncher.class.getName() + ".teardownGraceSeconds", 5);
+
+    /**
+     * Seconds after killing a tree before scanning for processes that left it.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    static /* not final */ int SWEEP_DELAY_SECONDS = SystemProperties.getInteger(CommandLauncher.class.getName() + ".teardownSweepDelaySeconds", 10);
+
+    private static final long POLL_MILLIS = 50;
+
+    /**
+     * Cookies of killed trees not {@linkplain #sweep swept} for yet.
+     */
+    private static final List<EnvVars> ESCAPED = new ArrayList<>();
+    private static boolean sweepScheduled;
+
+    private ProcessTeardown() {}
+
+    /**
+     * Kills the given process and all processes carrying its cookie.
+     */
+    static void kill(@NonNull Process proc, @NonNull EnvVars cookie) throws InterruptedException {
+        long start = System.nanoTime();
+        boolean scanned;
+        if (FAST && proc.isAlive()) {
+            killTree(proc.toHandle());
+            scanned = false;
+            // for whatever left the tree
+            sweepLater(cookie);
+        } else {
+            ProcessTree.get().killAll(proc, cookie);
+            scanned = true;
+        }
+        LaunchStatistics.get().recordTeardown(scanned, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static synchronized void sweepLater(@NonNull EnvVars cookie) {
+        ESCAPED.add(cookie);
+        if (!sweepScheduled) {
+            sweepScheduled = true;
+            Timer.get().schedule(() -> {
+                try {
+                    sweep();
+                } catch (InterruptedException e) {
+                    LOGGER.log(Level.FINE, "interrupted while sweeping for processes that left their tree", e);
+                }
+            }, SWEEP_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @NonNull
+    private static synchronized List<EnvVars> takeEscaped() {
+        List<EnvVars> cookies = new ArrayList<>(ESCAPED);
+        ESCAPED.clear();
+        sweepScheduled = false;
+        return cookies;
+    }
+
+    /**
+     * Kills the processes carrying the cookie of any tree killed since the last sweep, scanning the process table once.
+     *
+     * @return the number of processes asked to terminate
+     */
+    static int sweep() throws InterruptedException {
+        List<EnvVars> cookies = takeEscaped();
+        if (cookies.isEmpty()) {
+            return 0;
+        }
+        List<ProcessHandle> escaped = new ArrayList<>(scan(new LinkedHashMap<>(), cookies).values());
+        terminate(escaped);
+        return escaped.size();
+    }
+
+    /**
+     * Kills the given process and all processes carrying its cookie, unless that was already done.
+     *
+     * @param done set once the process has been killed; shared by everything that may kill the same process
+     */
+    static void killOnce(@NonNull Process proc, @NonNull EnvVars cookie, @NonNull AtomicBoolean done) throws InterruptedException {
+        if (done.compareAndSet(false, true)) {
+            kill(proc, cookie);
+            // still tracked if that failed, so that it is torn down again at shutdown
+            LaunchedProcesses.remove(done);
+        }
+    }
+
+    /**
+     * Kills many launched processes and everything they started, like {@link #kill} would one at a time,
+     * but walking the process table only once and sharing a single grace period among all of them.
+     *
+     * @param launched launched processes with their cookies
+     */
+    @NonNull
+    static Batch killAll(@NonNull Collection<? extends Map.Entry<Process, EnvVars>> launched) throws InterruptedException {
+        List<ProcessHandle> tree = new ArrayList<>();
+        List<EnvVars> cookies = new ArrayList<>();
+        Map<Long, List<ProcessHandle>> children = null;
+        for (Map.Entry<Process, EnvVars> e : launched) {
+            Process proc = e.getKey();
+            if (FAST && proc.isAlive()) {
+                if (children == null) {
+                    children = childrenByParent();
+                }
+                collect(proc.toHandle(), children, tree);
+            }
+            cookies.add(e.getValue());
+        }
+        // not waiting for the sweep of trees killed before
+        cookies.addAll(takeEscaped());
+        // also catches whatever left the trees, and what is left of processes that already terminated
+        Map<Long, ProcessHandle> processes = new LinkedHashMap<>();
+        for (ProcessHandle p : tree) {
+            processes.put(p.pid(), p);
+        }
+        List<ProcessHandle> all = new ArrayList<>(scan(processes, cookies).values());
+        return new Batch(launched.size(), all.size(), terminate(all));
+    }
+
+    /**
+     * Adds the processes carrying any of the given cookies to the given ones, walking the process table once.
+     */
+    @NonNull
+    private static Map<Long, ProcessHandle> scan(@NonNull Map<Long, ProcessHandle> processes, @NonNull List<EnvVars> cookies) {
+        for (ProcessTree.OSProcess p : ProcessTree.get()) {
+            if (!processes.containsKey((long) p.getPid())) {
+                for (EnvVars cookie : cookies) {
+                    if (p.hasMatchingEnvVars(cookie)) {
+                        ProcessHandle.of(p.getPid()).ifPresent(h -> processes.put(h.pid(), h));
+                        break;
+                    }
+                }
+            }
+        }
+        return processes;
+    }
+
+    /**
+     * What {@link #killAll} did.
+     */
+    static final class Batch {
+        /** Number of launched processes whose trees were torn down. */
+        final int launched;
+        /** Number of processes asked to terminate. */
+        final int signalled;
+        /** Number of those that had to be killed forcibly after the grace period. */
+        final int forced;
+
+        Batch(int launched, int signalled, int forced) {
+            this.launched = launched;
+            this.signalled = signalled;
+            this.forced = forced;
+        }
+    }
+
+    private static Map<Long, List<ProcessHandle>> childrenByParent() {
+        Map<Long, List<ProcessHandle>> children = new HashMap<>();
+        ProcessHandle.allProcesses().forEach(p -> p.parent().ifPresent(parent ->
+                children.computeIfAbsent(parent.pid(), k -> new ArrayList<>()).add(p)));
+        return children;
+    }
+
+    private static void collect(ProcessHandle p, Map<Long, List<ProcessHandle>> children, List<ProcessHandle> tree) {
+        for (ProcessHandle child : children.getOrDefault(p.pid(), List.of())) {
+            collect(child, children, tree);
+        }
+        tree.add(p);
+    }
+
+    /**
+     * Asks the process and its descendants to terminate and kills whatever is left after the grace period.
+     */
+    private static void killTree(ProcessHandle root) throws InterruptedException {
+        List<ProcessHandle> tree = new ArrayList<>();
+        root.descendants().forEach(tree::add);
+        tree.add(root);
+        terminate(tree);
+    }
+
+    /**
+     * Asks the processes to terminate and kills whatever is left after the grace period.
+     *
+     * @return the number of processes killed forcibly
+     */
+    private static int terminate(List<ProcessHandle> processes) throws InterruptedException {
+        for (ProcessHandle p : processes) {
+            p.destroy();
+        }
+        // polled rather than waited for through onExit, which takes a thread for each process that is not a child of ours
+        List<ProcessHandle> alive = new ArrayList<>(processes);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(GRACE_SECONDS);
+        while (true) {
+            alive.removeIf(p -> !p.isAlive());
+            if (alive.isEmpty() || System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+        for (ProcessHandle p : alive) {
+            LOGGER.log(Level.FINE, "killing {0} forcibly", p.pid());
+            p.destroyForcibly();
+        }
+        return alive.size();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ProcessTeardown.class.getName());
+}
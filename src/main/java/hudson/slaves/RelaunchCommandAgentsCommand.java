@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.Extension;
+import hudson.cli.CLICommand;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jenkinsci.plugins.command_launcher.Messages;
+import org.kohsuke.args4j.Argument;
+import org.kohsuke.args4j.Option;
+
+/**
+ * Relaunches many agents launched by {@link CommandLauncher} at once, printing each outcome as it becomes known.
+ */
+@Extension
+public class RelaunchCommandAgentsCommand extends CLICommand {
+
+    @Argument(metaVar = "NAME", usage = "Names of agents to relaunch.")
+    public List<String> nodes = new ArrayList<>();
+
+    @Option(name = "-l", metaVar = "LABEL", usage = "Label expression selecting agents to relaunch.")
+    public String label;
+
+    @Option(name = "-c", metaVar = "N", usage = "Maximum number of agents relaunched at the same time.")
+    public int concurrency = BulkRelaunch.DEFAULT_CONCURRENCY;
+
+    @Option(name = "-t", metaVar = "SECONDS", usage = "How long to wait for each agent to connect.")
+    public int timeout = BulkRelaunch.DEFAULT_TIMEOUT_SECONDS;
+
+    @Override
+    public String getShortDescription() {
+        return Messages.RelaunchCommandAgentsCommand_shortDescription();
+    }
+
+    @Override
+    protected int run() throws Exception {
+        BulkRelaunch relaunch = BulkRelaunch.select(label, nodes, concurrency, timeout);
+        long start = System.nanoTime();
+        List<BulkRelaunch.Result> results = relaunch.run(stdout::println);
+        stdout.println(Messages.RelaunchCommandAgentsCommand_summary(results.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), BulkRelaunch.count(results)));
+        return results.stream().anyMatch(BulkRelaunch.Result::isFailed) ? 1 : 0;
+    }
+}
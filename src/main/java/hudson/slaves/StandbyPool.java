@@ -0,0 +1,307 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.PeriodicWork;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Launch command processes started ahead of time, so that a newly provisioned agent
+ * does not have to wait for the command, the agent JVM and {@code agent.jar} to start up.
+ * <p>
+ * A standby process gets everything a launched process gets except the per-computer
+ * {@code NODE_NAME} and {@code WORKSPACE} variables, since it is started before its computer exists.
+ * It runs until the agent waits for the remoting handshake, which only starts once a computer takes it over.
+ * Processes are pooled by command and environment, and are killed once they stay unused for too long.
+ */
+@Restricted(NoExternalUse.class)
+public final class StandbyPool {
+
+    static final StandbyPool INSTANCE = new StandbyPool();
+
+    /**
+     * Minutes after which unused standby processes are killed.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    static /* not final */ int IDLE_MINUTES = SystemProperties.getInteger(StandbyPool.class.getName() + ".idleMinutes", 30);
+
+    /**
+     * Creates the process builder of a standby process, given its cookie.
+     */
+    @FunctionalInterface
+    interface Factory {
+        @NonNull
+        ProcessBuilder create(@NonNull EnvVars cookie) throws IOException;
+    }
+
+    private final Map<String, Deque<Standby>> pools = new HashMap<>();
+    private final Map<String, Integer> starting = new HashMap<>();
+
+    StandbyPool() {}
+
+    /**
+     * Takes a live standby process, if there is one.
+     */
+    @CheckForNull
+    synchronized Standby take(@NonNull String key) {
+        Deque<Standby> pool = pools.get(key);
+        List<Standby> dead = new ArrayList<>();
+        try {
+            while (pool != null && !pool.isEmpty()) {
+                Standby standby = pool.poll();
+                if (standby.proc.isAlive()) {
+                    return standby;
+                }
+                dead.add(standby);
+            }
+            return null;
+        } finally {
+            killLater(dead);
+        }
+    }
+
+    /**
+     * Starts processes in the background until {@code size} are available or starting.
+     *
+     * @param throttles launch slots to hold while starting each process, acquired in order
+     */
+    void replenish(@NonNull String key, int size, @NonNull Factory factory, @NonNull LaunchThrottle... throttles) {
+        int missing;
+        synchronized (this) {
+            Deque<Standby> pool = pools.computeIfAbsent(key, k -> new ArrayDeque<>());
+            List<Standby> dead = new ArrayList<>();
+            pool.removeIf(standby -> !standby.proc.isAlive() && dead.add(standby));
+            killLater(dead);
+            missing = size - pool.size() - starting.getOrDefault(key, 0);
+            if (missing <= 0) {
+                return;
+            }
+            starting.merge(key, missing, Integer::sum);
+        }
+        for (int i = 0; i < missing; i++) {
+            Computer.threadPoolForRemoting.submit(() -> {
+                List<LaunchThrottle.Slot> slots = new ArrayList<>();
+                try {
+                    // spawning a standby process loads the host just like a launch does
+                    for (LaunchThrottle throttle : throttles) {
+                        slots.add(throttle.acquire());
+                    }
+                    Standby standby = start(factory);
+                    synchronized (this) {
+                        pools.computeIfAbsent(key, k -> new ArrayDeque<>()).add(standby);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Failed to start a standby process", e);
+                } catch (InterruptedException e) {
+                    LOGGER.log(Level.FINE, "interrupted while waiting to start a standby process", e);
+                } finally {
+                    for (LaunchThrottle.Slot slot : slots) {
+                        slot.close();
+                    }
+                    synchronized (this) {
+                        starting.merge(key, -1, Integer::sum);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Number of live standby processes for the given key.
+     */
+    synchronized int size(@NonNull String key) {
+        Deque<Standby> pool = pools.get(key);
+        return pool == null ? 0 : (int) pool.stream().filter(standby -> standby.proc.isAlive()).count();
+    }
+
+    private static Standby start(Factory factory) throws IOException {
+        EnvVars cookie = EnvVars.createCookie();
+        Process proc = factory.create(cookie).start();
+        StandbyOutput stderr = new StandbyOutput();
+        StderrPump.INSTANCE.register(proc, proc.getErrorStream(), stderr);
+        return new Standby(proc, cookie, stderr);
+    }
+
+    /**
+     * Removes standby processes that were not used within {@link #IDLE_MINUTES}, or all of them.
+     */
+    private synchronized List<Standby> drain(boolean all) {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(IDLE_MINUTES);
+        List<Standby> drained = new ArrayList<>();
+        for (Deque<Standby> pool : pools.values()) {
+            pool.removeIf(standby -> {
+                if (all || standby.startedAt - cutoff < 0) {
+                    drained.add(standby);
+                    return true;
+                }
+                return false;
+            });
+        }
+        pools.values().removeIf(Deque::isEmpty);
+        return drained;
+    }
+
+    /**
+     * Kills what is left of standby processes that terminated on their own, such as their descendants,
+     * off the launch thread.
+     */
+    private static void killLater(List<Standby> dead) {
+        if (!dead.isEmpty()) {
+            Computer.threadPoolForRemoting.submit(() -> kill(dead));
+        }
+    }
+
+    private static void kill(List<Standby> standbys) {
+        if (standbys.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Process, EnvVars>> expired = new ArrayList<>();
+        for (Standby standby : standbys) {
+            expired.add(new AbstractMap.SimpleImmutableEntry<>(standby.proc, standby.cookie));
+        }
+        try {
+            // one process table scan for all of them, rather than one per process
+            ProcessTeardown.Batch batch = ProcessTeardown.killAll(expired);
+            LOGGER.log(Level.FINE, "Killed {0} standby processes; {1} processes were asked to terminate, {2} of them had to be killed forcibly",
+                    new Object[] {batch.launched, batch.signalled, batch.forced});
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Removes all standby processes, to be {@linkplain LaunchedProcesses#shutdown torn down} with the launched ones.
+     */
+    @NonNull
+    static List<Standby> takeAll() {
+        return INSTANCE.drain(true);
+    }
+
+    /**
+     * Kills idle standby processes.
+     */
+    @Extension
+    public static class Expiry extends PeriodicWork {
+        @Override
+        public long getRecurrencePeriod() {
+            return MIN;
+        }
+
+        @Override
+        protected void doRun() {
+            kill(INSTANCE.drain(false));
+        }
+    }
+
+    /**
+     * A started process waiting to be taken over by a computer.
+     */
+    static final class Standby {
+        @NonNull
+        final Process proc;
+        @NonNull
+        final EnvVars cookie;
+        @NonNull
+        final StandbyOutput stderr;
+        final long startedAt = System.nanoTime();
+
+        Standby(@NonNull Process proc, @NonNull EnvVars cookie, @NonNull StandbyOutput stderr) {
+            this.proc = proc;
+            this.cookie = cookie;
+            this.stderr = stderr;
+        }
+
+        long getAgeSeconds() {
+            return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt);
+        }
+    }
+
+    /**
+     * Holds on to the standard error of a standby process until a launcher takes it over.
+     */
+    static final class StandbyOutput extends OutputStream {
+        private static final int LIMIT = 64 * 1024;
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(@NonNull byte[] b, int off, int len) throws IOException {
+            if (target != null) {
+                target.write(b, off, len);
+            } else {
+                buffer.write(b, off, Math.min(len, LIMIT - buffer.size()));
+            }
+        }
+
+        /**
+         * Writes what was buffered so far to the given stream, and everything after that as well.
+         */
+        synchronized void attach(@NonNull OutputStream target) throws IOException {
+            buffer.writeTo(target);
+            buffer = null;
+            this.target = target;
+            if (closed) {
+                target.close();
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            closed = true;
+            if (target != null) {
+                target.close();
+            }
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(StandbyPool.class.getName());
+}
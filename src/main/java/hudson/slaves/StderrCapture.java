@@ -0,0 +1,279 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.jenkinsci.plugins.command_launcher.Messages;
+
+/**
+ * Receives the standard error of a launched process.
+ * <p>
+ * Output is written through to the node log up to a byte rate; anything beyond that is suppressed.
+ * The most recent output is kept in a ring buffer, and if anything was suppressed,
+ * a summary and the retained tail are written to the log when the stream is {@linkplain #close closed}.
+ * The ring buffer only grows up to its capacity as output arrives, so that quiet processes cost next to nothing,
+ * and can be {@linkplain #releaseTail released} once the tail is no longer needed.
+ * Closing does not close the log itself.
+ * <p>
+ * While {@linkplain #failFast fail-fast patterns} are set, each complete line is also matched against them,
+ * regardless of whether it was suppressed.
+ */
+final class StderrCapture extends OutputStream {
+
+    private final PrintStream log;
+    private final Charset charset;
+    private final long bytesPerSecond;
+
+    /** Maximum size of {@link #ring}; zero once {@linkplain #releaseTail released}. */
+    private int capacity;
+    private byte[] ring = new byte[0];
+    /** Position of the next byte in {@link #ring}. */
+    private int head;
+    /** Number of valid bytes in {@link #ring}. */
+    private int size;
+
+    private double allowance;
+    private long lastRefill = System.nanoTime();
+    private long suppressed;
+    private boolean closed;
+
+    /** Longest prefix of a line that is matched against {@link #patterns}. */
+    static final int MAX_LINE = 1024;
+
+    private List<Pattern> patterns;
+    private Consumer<String> onMatch;
+    private byte[] line;
+    private int lineLength;
+
+    /**
+     * @param log            the node log
+     * @param charset        encoding of the process output
+     * @param tailBytes      size of the retained tail
+     * @param bytesPerSecond sustained rate written through to the log; zero or less for no limit
+     */
+    StderrCapture(@NonNull PrintStream log, @NonNull Charset charset, int tailBytes, long bytesPerSecond) {
+        this.log = log;
+        this.charset = charset;
+        this.capacity = Math.max(0, tailBytes);
+        this.bytesPerSecond = bytesPerSecond;
+        this.allowance = bytesPerSecond;
+    }
+
+    @Override
+    public void write(int b) {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(@NonNull byte[] b, int off, int len) {
+        remember(b, off, len);
+        int allowed = len;
+        if (bytesPerSecond > 0) {
+            refill();
+            allowed = (int) Math.min(len, (long) allowance);
+            allowance -= allowed;
+        }
+        if (allowed > 0) {
+            log.write(b, off, allowed);
+        }
+        if (allowed < len) {
+            if (suppressed == 0) {
+                log.println();
+                log.println(Messages.CommandLauncher_stderrSuppressed(bytesPerSecond, capacity));
+            }
+            suppressed += len - allowed;
+        }
+        if (patterns != null) {
+            // after writing, so that the matching line precedes whatever the callback logs
+            scan(b, off, len);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        allowance = Math.min(bytesPerSecond, allowance + bytesPerSecond * (double) (now - lastRefill) / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+    }
+
+    private void remember(byte[] b, int off, int len) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size + len > ring.length && ring.length < capacity) {
+            grow(Math.min(capacity, Math.max(Math.max(ring.length * 2, 256), size + len)));
+        }
+        if (len >= ring.length) {
+            System.arraycopy(b, off + len - ring.length, ring, 0, ring.length);
+            head = 0;
+            size = ring.length;
+            return;
+        }
+        int first = Math.min(len, ring.length - head);
+        System.arraycopy(b, off, ring, head, first);
+        System.arraycopy(b, off + first, ring, 0, len - first);
+        head = (head + len) % ring.length;
+        size = Math.min(ring.length, size + len);
+    }
+
+    /**
+     * Starts matching each line of output against the given patterns.
+     * The first line to match any of them is passed to {@code onMatch}, after which matching stops.
+     * The callback runs on the thread writing the output, so it must not block.
+     */
+    synchronized void failFast(@NonNull List<Pattern> patterns, @NonNull Consumer<String> onMatch) {
+        if (patterns.isEmpty()) {
+            return;
+        }
+        this.patterns = patterns;
+        this.onMatch = onMatch;
+        this.line = new byte[MAX_LINE];
+        this.lineLength = 0;
+    }
+
+    /**
+     * Stops matching lines, if that was {@linkplain #failFast started}.
+     */
+    synchronized void stopFailFast() {
+        patterns = null;
+        onMatch = null;
+        line = null;
+    }
+
+    private void scan(byte[] b, int off, int len) {
+        for (int i = off; i < off + len && patterns != null; i++) {
+            if (b[i] == '\n') {
+                int end = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+                String text = new String(line, 0, end, charset);
+                lineLength = 0;
+                for (Pattern pattern : patterns) {
+                    if (pattern.matcher(text).find()) {
+                        Consumer<String> callback = onMatch;
+                        stopFailFast();
+                        callback.accept(text);
+                        break;
+                    }
+                }
+            } else if (lineLength < line.length) {
+                line[lineLength++] = b[i];
+            }
+        }
+    }
+
+    private void grow(int length) {
+        byte[] grown = new byte[length];
+        int start = (head - size + ring.length) % Math.max(1, ring.length);
+        int first = Math.min(size, ring.length - start);
+        System.arraycopy(ring, start, grown, 0, first);
+        System.arraycopy(ring, 0, grown, first, size - first);
+        ring = grown;
+        head = size % length;
+    }
+
+    /**
+     * Drops the retained tail if nothing can be suppressed, so that it would never be written to the log.
+     * Called once the launch has succeeded and the tail is no longer needed to diagnose it.
+     */
+    synchronized void releaseTail() {
+        if (bytesPerSecond <= 0) {
+            capacity = 0;
+            ring = new byte[0];
+            head = 0;
+            size = 0;
+        }
+    }
+
+    @Override
+    public void flush() {
+        log.flush();
+    }
+
+    /**
+     * Number of bytes that were not written to the log.
+     */
+    synchronized long getSuppressed() {
+        return suppressed;
+    }
+
+    /**
+     * The most recent output, up to the size of the ring buffer.
+     */
+    @NonNull
+    synchronized String getTail() {
+        byte[] tail = new byte[size];
+        int start = (head - size + ring.length) % Math.max(1, ring.length);
+        int first = Math.min(size, ring.length - start);
+        System.arraycopy(ring, start, tail, 0, first);
+        System.arraycopy(ring, 0, tail, first, size - first);
+        return new String(tail, charset);
+    }
+
+    /**
+     * Waits until the output of the process has been {@linkplain #close() completely received}.
+     *
+     * @return whether that happened within the timeout
+     */
+    synchronized boolean awaitClosed(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long remaining;
+        while (!closed && (remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())) > 0) {
+            wait(remaining);
+        }
+        return closed;
+    }
+
+    /**
+     * Called once the process output is exhausted.
+     */
+    @Override
+    public void close() {
+        String tail;
+        int retained;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+            if (suppressed == 0) {
+                return;
+            }
+            tail = getTail();
+            retained = size;
+        }
+        log.println();
+        log.println(Messages.CommandLauncher_stderrSummary(suppressed, retained));
+        log.print(tail);
+        if (!tail.endsWith("\n")) {
+            log.println();
+        }
+        log.flush();
+    }
+}
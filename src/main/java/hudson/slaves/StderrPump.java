@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Copies the standard error of all launched agent processes on a single thread.
+ * <p>
+ * Process pipes cannot be multiplexed with a selector, so the pump polls each stream
+ * and only reads what is {@linkplain InputStream#available() available}, which never blocks.
+ * Polling backs off while all streams are idle and stops altogether once no stream is registered.
+ * Once the process has terminated, the stream is read to its end on another thread rather than dropped when nothing is available.
+ * The JDK closes the pipe when the process exits unless a read is blocked on it at that moment though,
+ * so what descendants that inherited the stream write after that is only kept by dedicated copier threads,
+ * see {@link CommandLauncher#SHARED_STDERR_PUMP}.
+ */
+final class StderrPump {
+
+    static final StderrPump INSTANCE = new StderrPump();
+
+    /**
+     * Upper bound for the delay between two polls of idle streams.
+     */
+    private static final long MAX_DELAY_MILLIS = 100;
+
+    /**
+     * Bytes copied from one stream per round, so that a chatty process cannot starve the others.
+     */
+    private static final int MAX_BYTES_PER_ROUND = 64 * 1024;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            new NamingThreadFactory(new DaemonThreadFactory(), "CommandLauncher stderr pump"));
+    /**
+     * Reads the streams of terminated processes to their end, which may block for as long as descendants keep them open.
+     */
+    private final ExecutorService finisher = Executors.newCachedThreadPool(
+            new NamingThreadFactory(new DaemonThreadFactory(), "CommandLauncher stderr finisher"));
+    private final Set<Drain> drains = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger finishing = new AtomicInteger();
+    /** Only used on the pump thread. */
+    private final byte[] buffer = new byte[8192];
+
+    private boolean scheduled;
+    private long delay;
+
+    /**
+     * Starts copying the given stream until the process has terminated and the end of the stream is reached.
+     *
+     * @param proc the process whose standard error is copied
+     * @param in   the standard error of the process
+     * @param out  where to copy it to; closed once the stream is exhausted
+     */
+    void register(@NonNull Process proc, @NonNull InputStream in, @NonNull OutputStream out) {
+        drains.add(new Drain(proc, in, out));
+        synchronized (this) {
+            delay = 0;
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(this::pump);
+            }
+        }
+    }
+
+    /**
+     * Number of streams currently being copied.
+     */
+    int size() {
+        return drains.size() + finishing.get();
+    }
+
+    private void pump() {
+        boolean active = false;
+        for (Drain drain : drains) {
+            try {
+                int n = drain.drain(buffer);
+                if (n < 0) {
+                    // counted before it is removed, so that it is never missing from size
+                    finishing.incrementAndGet();
+                    drains.remove(drain);
+                    finisher.execute(() -> {
+                        try {
+                            drain.finish();
+                        } finally {
+                            finishing.decrementAndGet();
+                        }
+                    });
+                } else if (n > 0) {
+                    active = true;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "failed to copy stderr of " + drain.proc, e);
+                drains.remove(drain);
+                drain.close();
+            }
+        }
+        synchronized (this) {
+            if (drains.isEmpty()) {
+                scheduled = false;
+                return;
+            }
+            delay = active ? 0 : Math.min(Math.max(1, delay * 2), MAX_DELAY_MILLIS);
+            executor.schedule(this::pump, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static final class Drain {
+        final Process proc;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Drain(Process proc, InputStream in, OutputStream out) {
+            this.proc = proc;
+            this.in = in;
+            this.out = out;
+        }
+
+        /**
+         * Copies whatever can be read without blocking.
+         *
+         * @return the number of bytes copied, or -1 once the process has terminated and nothing is available to read
+         */
+        int drain(byte[] buffer) throws IOException {
+            // checked before polling: whatever a process wrote before exiting is available once it is seen dead,
+            // but may arrive between polling and checking
+            boolean alive = proc.isAlive();
+            int total = 0;
+            int available;
+            while (total < MAX_BYTES_PER_ROUND && (available = in.available()) > 0) {
+                int n = in.read(buffer, 0, Math.min(available, buffer.length));
+                if (n < 0) {
+                    break;
+                }
+                out.write(buffer, 0, n);
+                total += n;
+            }
+            if (total > 0) {
+                out.flush();
+                return total;
+            }
+            return alive ? 0 : -1;
+        }
+
+        /**
+         * Copies the rest of the stream, blocking until its end, and closes it.
+         */
+        void finish() {
+            byte[] buffer = new byte[8192];
+            try {
+                int n;
+                while ((n = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, n);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "failed to copy stderr of " + proc, e);
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "failed to close stderr of " + proc, e);
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "failed to close stderr target of " + proc, e);
+            }
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(StderrPump.class.getName());
+}
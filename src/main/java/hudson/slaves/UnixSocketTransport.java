@@ -0,0 +1,196 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Carries the remoting channel of a launched agent over a Unix domain socket instead of the process' stdin/stdout.
+ * <p>
+ * The socket is created in a private temporary directory and its path is passed to the launch command in
+ * {@link #ENV}; the command is expected to connect it to the agent, e.g. with
+ * {@code socat UNIX-CONNECT:$JENKINS_AGENT_SOCKET EXEC:'ssh host java -jar agent.jar'}.
+ * The server socket only accepts the first connection and is removed right after.
+ */
+final class UnixSocketTransport implements Closeable {
+
+    /**
+     * Environment variable holding the socket path.
+     */
+    static final String ENV = "JENKINS_AGENT_SOCKET";
+
+    /**
+     * Size of the stream buffers unless the launcher asks for another one.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int SOCKET_BUFFER_SIZE = 1024 * 1024;
+
+    private final Path dir;
+    private final Path path;
+    private final ServerSocketChannel server;
+
+    private UnixSocketTransport(Path dir, Path path, ServerSocketChannel server) {
+        this.dir = dir;
+        this.path = path;
+        this.server = server;
+    }
+
+    /**
+     * Creates a socket that the launch command can connect to.
+     */
+    @NonNull
+    static UnixSocketTransport open() throws IOException {
+        Path dir;
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            dir = Files.createTempDirectory("jenkins-agent", PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            dir = Files.createTempDirectory("jenkins-agent");
+        }
+        Path path = dir.resolve("agent.sock");
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            server.close();
+            Files.deleteIfExists(dir);
+            throw e;
+        }
+        return new UnixSocketTransport(dir, path, server);
+    }
+
+    @NonNull
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Waits for the launch command to connect.
+     * Fails if the process terminates first, or if this transport is {@linkplain #close() closed} meanwhile.
+     */
+    @NonNull
+    SocketChannel accept(@NonNull Process proc) throws IOException {
+        proc.onExit().thenRun(this::close);
+        try {
+            SocketChannel channel = server.accept();
+            try {
+                channel.setOption(StandardSocketOptions.SO_SNDBUF, SOCKET_BUFFER_SIZE);
+                channel.setOption(StandardSocketOptions.SO_RCVBUF, SOCKET_BUFFER_SIZE);
+            } catch (IOException | UnsupportedOperationException e) {
+                LOGGER.log(Level.FINE, "could not enlarge socket buffers", e);
+            }
+            return channel;
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Reads from the channel; unlike {@link java.nio.channels.Channels#newInputStream},
+     * this does not hold a lock that would block concurrent writes.
+     *
+     * @param bufferSize size of the read buffer in bytes, or zero for the default
+     */
+    @NonNull
+    static InputStream in(@NonNull SocketChannel channel, int bufferSize) {
+        return new BufferedInputStream(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(@NonNull byte[] b, int off, int len) throws IOException {
+                return len == 0 ? 0 : channel.read(ByteBuffer.wrap(b, off, len));
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        }, bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Writes to the channel; see {@link #in(SocketChannel, int)}.
+     *
+     * @param bufferSize size of the write buffer in bytes, or zero for the default
+     */
+    @NonNull
+    static OutputStream out(@NonNull SocketChannel channel, int bufferSize) {
+        return new BufferedOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(@NonNull byte[] b, int off, int len) throws IOException {
+                ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        }, bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Stops accepting connections and removes the socket.
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "failed to clean up " + path, e);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(UnixSocketTransport.class.getName());
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class AgentJarCacheTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void namesCopyAfterChecksum() throws Exception {
+        Path source = tmp.newFile("agent.jar").toPath();
+        Files.writeString(source, "abc", StandardCharsets.US_ASCII);
+        Path dir = tmp.getRoot().toPath().resolve("cache");
+
+        AgentJarCache.Entry entry = AgentJarCache.create(source.toUri().toURL(), dir);
+        // sha256("abc")
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", entry.sha256);
+        assertEquals(dir.resolve("agent-" + entry.sha256 + ".jar"), entry.path);
+        assertEquals("abc", Files.readString(entry.path, StandardCharsets.US_ASCII));
+
+        assertEquals(entry.path, AgentJarCache.create(source.toUri().toURL(), dir).path);
+
+        Files.writeString(source, "abcd", StandardCharsets.US_ASCII);
+        AgentJarCache.Entry updated = AgentJarCache.create(source.toUri().toURL(), dir);
+        assertNotEquals(entry.sha256, updated.sha256);
+        assertFalse("stale copy is removed", Files.exists(entry.path));
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
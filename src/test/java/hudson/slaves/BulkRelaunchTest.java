@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.Functions;
+import hudson.cli.CLICommandInvoker;
+import jenkins.model.Jenkins;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebRequest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+
+import java.net.URL;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+public class BulkRelaunchTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private void addAgent(String name, ComputerLauncher launcher) throws Exception {
+        DumbSlave agent = new DumbSlave(name, temporaryFolder.newFolder().getAbsolutePath(), launcher);
+        agent.setLabelString("bulk");
+        j.jenkins.addNode(agent);
+    }
+
+    @Test
+    public void relaunchesByLabelAndReportsEachAgent() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        addAgent("a1", new CommandLauncher("false"));
+        addAgent("a2", new CommandLauncher("false"));
+        addAgent("inbound", new JNLPLauncher());
+
+        CLICommandInvoker.Result result = new CLICommandInvoker(j, new RelaunchCommandAgentsCommand()).invokeWithArgs("-l", "bulk", "-c", "2");
+        assertThat(result, CLICommandInvoker.Matcher.failedWith(1));
+        assertThat(result.stdout(), containsString("a1\tFAILED\t"));
+        assertThat(result.stdout(), containsString("a2\tFAILED\t"));
+        assertThat(result.stdout(), containsString("\tPROCESS_EXITED"));
+        assertThat(result.stdout(), containsString("inbound\tSKIPPED\t0 ms"));
+        assertThat(result.stdout(), containsString("Relaunched 3 agents in"));
+    }
+
+    @Test
+    public void unknownAgentIsRejected() throws Exception {
+        CLICommandInvoker.Result result = new CLICommandInvoker(j, new RelaunchCommandAgentsCommand()).invokeWithArgs("nope");
+        assertThat(result, CLICommandInvoker.Matcher.failedWith(3));
+        assertThat(result.stderr(), containsString("No such agent: nope"));
+    }
+
+    @Test
+    public void agentsThatMayNotBeConnectedAreNotRelaunched() throws Exception {
+        addAgent("a1", new CommandLauncher("false"));
+
+        CLICommandInvoker.Result result = new CLICommandInvoker(j, new RelaunchCommandAgentsCommand()).authorizedTo(Jenkins.READ).invokeWithArgs("a1");
+        assertThat(result, CLICommandInvoker.Matcher.failedWith(6));
+        assertThat(result.stdout(), not(containsString("a1\t")));
+    }
+
+    @Test
+    public void restEndpointStreamsResultsAndSummary() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        addAgent("a1", new CommandLauncher("false"));
+
+        JenkinsRule.WebClient wc = j.createWebClient();
+        WebRequest request = new WebRequest(new URL(j.getURL(), "command-launcher/relaunch?nodes=a1"), HttpMethod.POST);
+        String body = wc.getPage(wc.addCrumb(request)).getWebResponse().getContentAsString();
+        assertThat(body, containsString("{\"nodeName\":\"a1\",\"outcome\":\"FAILED\""));
+        assertThat(body, containsString("\"outcomes\":{\"FAILED\":1}"));
+    }
+
+    @Test
+    public void restEndpointRequiresConnectPermission() throws Exception {
+        addAgent("a1", new CommandLauncher("false"));
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy().
+                grant(Jenkins.READ, Jenkins.SYSTEM_READ).everywhere().to("reader"));
+
+        JenkinsRule.WebClient wc = j.createWebClient().login("reader");
+        wc.setThrowExceptionOnFailingStatusCode(false);
+        WebRequest request = new WebRequest(new URL(j.getURL(), "command-launcher/relaunch?nodes=a1"), HttpMethod.POST);
+        assertEquals(403, wc.getPage(wc.addCrumb(request)).getWebResponse().getStatusCode());
+    }
+}
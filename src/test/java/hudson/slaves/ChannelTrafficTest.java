@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ChannelTrafficTest {
+
+    @Test
+    public void countsBytesBothWays() throws Exception {
+        LaunchStatistics.Summary node = new LaunchStatistics.Summary("node");
+        LaunchStatistics.Summary aggregate = new LaunchStatistics.Summary(null);
+
+        InputStream in = ChannelTraffic.received(new ByteArrayInputStream(new byte[100]), node, aggregate);
+        assertEquals(0, in.read());
+        assertEquals(99, in.readAllBytes().length);
+        assertEquals(-1, in.read());
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        OutputStream out = ChannelTraffic.sent(sink, node, aggregate);
+        out.write(1);
+        out.write(new byte[10], 2, 5);
+
+        assertEquals(100, node.getBytesReceived());
+        assertEquals(6, node.getBytesSent());
+        assertEquals(100, aggregate.getBytesReceived());
+        assertEquals(6, sink.size());
+    }
+}
@@ -23,11 +23,15 @@
  */
 package hudson.slaves;
 
+import hudson.model.TaskListener;
+import jenkins.model.Jenkins;
 import org.jvnet.hudson.test.JenkinsRule;
 
 import org.junit.Test;
 import org.junit.Rule;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * @author Kohsuke Kawaguchi
  */
@@ -37,4 +41,36 @@ public class CommandConnectorTest {
         CommandConnector cc = new CommandConnector("abc def");
         j.assertEqualDataBoundBeans(cc,j.configRoundtrip(cc));
     }
+
+    @Test public void configRoundtripWithLaunchSettings() throws Exception {
+        CommandConnector cc = new CommandConnector("abc def");
+        LaunchRetryPolicy retry = new LaunchRetryPolicy(4);
+        retry.setInitialDelay(1);
+        retry.setMaxDelay(60);
+        retry.setExitCodes("255");
+        retry.setStderrPattern("Connection refused");
+        cc.setRetryPolicy(retry);
+        cc.setStandbyProcesses(2);
+        cc.setMaxConcurrentLaunchesPerHost(3);
+        cc.setLaunchSpacing(500);
+        CommandConnector roundtripped = j.configRoundtrip(cc);
+        j.assertEqualDataBoundBeans(cc, roundtripped);
+        assertEquals(2, roundtripped.getStandbyProcesses());
+        assertEquals(3, roundtripped.getMaxConcurrentLaunchesPerHost());
+        assertEquals(500, roundtripped.getLaunchSpacing());
+        assertEquals(4, roundtripped.getRetryPolicy().getMaxAttempts());
+    }
+
+    @Test public void launcherKeepsHostLimitsWhenReloaded() throws Exception {
+        CommandConnector cc = new CommandConnector("abc def");
+        cc.setStandbyProcesses(2);
+        cc.setMaxConcurrentLaunchesPerHost(3);
+        cc.setLaunchSpacing(500);
+        CommandLauncher launcher = cc.launch("host1", TaskListener.NULL);
+        CommandLauncher reloaded = (CommandLauncher) Jenkins.XSTREAM2.fromXML(Jenkins.XSTREAM2.toXML(launcher));
+        assertEquals("host1", reloaded.host);
+        assertEquals(2, reloaded.standbyProcesses);
+        assertEquals(3, reloaded.maxConcurrentLaunchesPerHost);
+        assertEquals(500, reloaded.launchSpacing);
+    }
 }
@@ -25,6 +25,9 @@ package hudson.slaves;
 
 import hudson.EnvVars;
 import hudson.Functions;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.UnapprovedUsageException;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.SystemCommandLanguage;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -32,6 +35,7 @@ import org.jvnet.hudson.test.JenkinsRule;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.util.Scanner;
 import java.util.concurrent.ExecutionException;
@@ -63,6 +67,30 @@ public class CommandLauncherTest {
         assertThat(log, not(containsString("ERROR: Process terminated with exit code 0")));
     }
 
+    @Test
+    public void commandFailureIsRecordedInStatistics() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        createAgentTimeout("false");
+
+        LaunchStatistics.Summary summary = LaunchStatistics.get().getNode("dummy");
+        assertNotNull(summary);
+        assertEquals(1, summary.getLaunches());
+        assertEquals(1, summary.getFailures());
+        assertEquals(1, summary.getFailuresByExitCode().size());
+        assertEquals(1, summary.getFailuresByExitCode().get(0).getExitCode());
+        assertEquals(1, LaunchStatistics.get().getAggregate().getLaunches());
+
+        String json = j.createWebClient().goTo("command-launcher/api/json?depth=1", "application/json").getWebResponse().getContentAsString();
+        assertThat(json, containsString("\"nodeName\":\"dummy\""));
+        assertThat(json, containsString("\"name\":\"SPAWN\""));
+
+        JenkinsRule.WebClient wc = j.createWebClient();
+        wc.goTo("computer/dummy/launch-history/");
+        String history = wc.goTo("computer/dummy/launch-history/api/json?depth=1", "application/json").getWebResponse().getContentAsString();
+        assertThat(history, containsString("\"failure\":\"PROCESS_EXITED\""));
+        assertThat(history, containsString("\"exitCode\":1"));
+    }
+
     // TODO Sometimes gets `EOFException: unexpected stream termination` before then on CI builder; maybe needs to wait in a loop for a message to appear?
     @Test
     public void commandSucceedsWithoutChannel() throws Exception {
@@ -74,6 +102,93 @@ public class CommandLauncherTest {
         assertThat(log, containsString("ERROR: Process terminated with exit code 0"));
     }
 
+    @Test
+    public void handshakeTimeoutKillsStalledProcess() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        CommandLauncher launcher = new CommandLauncher("sleep 600");
+        launcher.setHandshakeTimeout(1);
+        String log = launchAndFail(launcher);
+        assertThat(log, containsString("did not connect within 1 seconds, the launch stalled in phase FIRST_BYTE"));
+    }
+
+    @Test
+    public void exitIsNoticedWhileDescendantsHoldThePipes() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        String log = launchAndFail(new CommandLauncher("sh -c \"sleep 600 & exit 3\""));
+        assertThat(log, containsString("ERROR: Process terminated with exit code 3"));
+        LaunchRecord record = LaunchStatistics.get().getHistory("dummy").getRecords().get(0);
+        assertEquals(LaunchFailure.PROCESS_EXITED, record.getFailure());
+        assertEquals(Integer.valueOf(3), record.getExitCode());
+    }
+
+    @Test
+    public void failFastPatternAbortsLaunch() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        CommandLauncherConfiguration.get().setFailFastPatterns("No route to host\nConnection refused");
+        CommandLauncher launcher = new CommandLauncher("sh -c \"echo 'ssh: connect to host x port 22: Connection refused' >&2; sleep 600\"");
+        launcher.setHandshakeTimeout(600);
+        String log = launchAndFail(launcher);
+        assertThat(log, containsString("stderr matched a fail-fast pattern: ssh: connect to host x port 22: Connection refused"));
+        LaunchRecord record = LaunchStatistics.get().getHistory("dummy").getRecords().get(0);
+        assertEquals(LaunchFailure.STDERR_PATTERN, record.getFailure());
+    }
+
+    @Test
+    public void retriesFailedLaunch() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        CommandLauncher launcher = new CommandLauncher("false");
+        LaunchRetryPolicy retry = new LaunchRetryPolicy(2);
+        retry.setInitialDelay(0);
+        launcher.setRetryPolicy(retry);
+        String log = launchAndFail(launcher);
+        assertThat(log, containsString("Launch attempt 1 of 2 failed"));
+        assertThat(log, not(containsString("Launch attempt 2 of 2 failed")));
+    }
+
+    @Test
+    public void unixSocketPathIsExported() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        CommandLauncher launcher = new CommandLauncher("sh -c \"echo socket=$JENKINS_AGENT_SOCKET\"");
+        launcher.setUnixSocket(true);
+        String log = launchAndFail(launcher);
+        assertThat(log, containsString("agent.sock"));
+        assertThat(log, containsString("ERROR: Process terminated with exit code 0"));
+    }
+
+    @Test
+    public void bufferedChannelReportsTermination() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        CommandLauncher launcher = new CommandLauncher("true");
+        launcher.setChannelBufferSize(64);
+        String log = launchAndFail(launcher);
+        assertThat(log, containsString("ERROR: Process terminated with exit code 0"));
+    }
+
+    @Test
+    public void approvalIsRecheckedAfterApprovalsChange() throws Exception {
+        CommandLauncher launcher = new CommandLauncher("echo approved", new EnvVars());
+        assertEquals("echo approved", launcher.getApprovedCommand());
+        assertEquals("echo approved", launcher.getApprovedCommand());
+        ScriptApproval.get().clearApprovedScripts();
+        assertThrows(UnapprovedUsageException.class, launcher::getApprovedCommand);
+    }
+
+    @Test
+    public void approvalIsRecheckedAfterApprovalsAreReloaded() throws Exception {
+        File file = new File(j.jenkins.getRootDir(), ApprovalGeneration.FILE);
+        ScriptApproval.get().clearApprovedScripts();
+        byte[] unapproved = Files.readAllBytes(file.toPath());
+        ScriptApproval.get().preapprove("echo approved", SystemCommandLanguage.get());
+        CommandLauncher launcher = new CommandLauncher("echo approved", new EnvVars());
+        assertEquals("echo approved", launcher.getApprovedCommand());
+
+        // as when reloading the configuration from disk, which does not save it
+        Files.write(file.toPath(), unapproved);
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        ScriptApproval.get().load();
+        assertThrows(UnapprovedUsageException.class, launcher::getApprovedCommand);
+    }
+
     private static void connectToComputer(DumbSlave agent) {
         try {
             agent.toComputer().connect(false).get();
@@ -107,6 +222,28 @@ public class CommandLauncherTest {
         hasEnvVar("AGENTJAR_URL", url, null);
     }
 
+    @Test
+    public void hasEnvVarAgentJarChecksum() throws Exception {
+        AgentJarCache.Entry agentJar = AgentJarCache.get();
+        assertNotNull(agentJar);
+        hasEnvVar("AGENTJAR_SHA256", agentJar.sha256, null);
+        hasEnvVar("AGENTJAR_PATH", agentJar.path.toString(), null);
+    }
+
+    @Test
+    public void cleanEnvironmentOnlyPassesAllowlist() throws Exception {
+        assumeTrue(!Functions.isWindows());
+        assumeTrue(System.getenv("HOME") != null);
+        CommandLauncherConfiguration.get().setEnvironmentAllowlist("PATH");
+        File canary = temporaryFolder.newFile();
+        CommandLauncher launcher = new CommandLauncher("sh -c \"echo $NODE_NAME:$HOME> " + canary.getAbsolutePath() + "\"");
+        launcher.setCleanEnvironment(true);
+        DumbSlave agent = new DumbSlave("dummy", createWorkspace(), launcher);
+        j.jenkins.addNode(agent);
+        connectToComputer(agent);
+        assertEquals("dummy:", new Scanner(canary).useDelimiter("\\Z").next());
+    }
+
     private static MessageFormat windowsCommand = new MessageFormat("{0} /c \"echo %{1}%> {2}\"");
     private static MessageFormat posixCommand = new MessageFormat("sh -c \"echo ${1}> {2}\"");
     private void hasEnvVar(String name, String value, String workspacePath) throws Exception {
@@ -133,17 +270,39 @@ public class CommandLauncherTest {
     }
 
     public DumbSlave createAgent(String command, String workspacePath) throws Exception {
+        return createAgent(new CommandLauncher(command), workspacePath);
+    }
+
+    private DumbSlave createAgent(CommandLauncher launcher, String workspacePath) throws Exception {
         DumbSlave agent;
         if (workspacePath == null)
             workspacePath = createWorkspace();
 
         synchronized (j.jenkins) { // TODO this lock smells like a bug post 1.607
-            agent = new DumbSlave("dummy", workspacePath, new CommandLauncher(command));
+            agent = new DumbSlave("dummy", workspacePath, launcher);
             j.jenkins.addNode(agent);
         }
         return agent;
     }
 
+    /**
+     * Launches an agent that is expected to fail to connect.
+     *
+     * @return the log of the launch
+     */
+    private String launchAndFail(CommandLauncher launcher) throws Exception {
+        DumbSlave agent = createAgent(launcher, null);
+
+        try {
+            agent.toComputer().connect(false).get(30, TimeUnit.SECONDS);
+            fail("the agent was not supposed to connect successfully");
+        } catch (ExecutionException e) {
+            // expected
+        }
+
+        return agent.toComputer().getLog();
+    }
+
     public DumbSlave createAgentTimeout(String command) throws Exception {
         DumbSlave agent = createAgent(command, null);
 
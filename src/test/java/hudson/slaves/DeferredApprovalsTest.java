@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.model.Computer;
+import java.util.concurrent.TimeUnit;
+import jenkins.model.Jenkins;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebRequest;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.UnapprovedUsageException;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.SystemCommandLanguage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+
+import static org.junit.Assert.*;
+
+public class DeferredApprovalsTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void registersRightAwayAfterStartup() throws Exception {
+        DeferredApprovals.configuring("echo loaded");
+        // without security everybody is an administrator, so the command got approved
+        assertEquals("echo loaded", ScriptApproval.get().using("echo loaded", SystemCommandLanguage.get()));
+    }
+
+    @Test
+    public void commandPostedByNonAdminIsNotApprovedByAdminLaunch() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy().
+                grant(Jenkins.ADMINISTER).everywhere().to("admin").
+                grant(Jenkins.READ, Computer.CONFIGURE, Computer.EXTENDED_READ).everywhere().to("dev"));
+        ScriptApproval.get().preapprove("echo by admin", SystemCommandLanguage.get());
+        DumbSlave attacked = new DumbSlave("attacked", temporaryFolder.newFolder().getAbsolutePath(), new CommandLauncher("echo by admin"));
+        j.jenkins.addNode(attacked);
+        DumbSlave launched = new DumbSlave("launched", temporaryFolder.newFolder().getAbsolutePath(), new CommandLauncher("echo by admin"));
+        j.jenkins.addNode(launched);
+
+        JenkinsRule.WebClient dev = j.createWebClient().login("dev");
+        String configDotXml = attacked.toComputer().getUrl() + "config.xml";
+        String xml = dev.goTo(configDotXml, "application/xml").getWebResponse().getContentAsString();
+        WebRequest req = new WebRequest(dev.createCrumbedUrl(configDotXml), HttpMethod.POST);
+        req.setEncodingType(null);
+        req.setRequestBody(xml.replace("echo by admin", "echo REST ATTACK"));
+        dev.getPage(req);
+
+        JenkinsRule.WebClient admin = j.createWebClient().login("admin");
+        admin.setThrowExceptionOnFailingStatusCode(false);
+        admin.getPage(new WebRequest(admin.createCrumbedUrl(launched.toComputer().getUrl() + "launchSlaveAgent"), HttpMethod.POST));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (LaunchStatistics.get().getHistory("launched").getRecords().isEmpty()) {
+            assertTrue("timed out waiting for the launch", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+
+        assertTrue(ScriptApproval.get().getPendingScripts().stream().anyMatch(p -> p.script.equals("echo REST ATTACK")));
+        assertThrows(UnapprovedUsageException.class, () -> ScriptApproval.get().using("echo REST ATTACK", SystemCommandLanguage.get()));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class LaunchHistoryTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private int size;
+
+    @Before
+    public void smallHistory() {
+        size = LaunchHistory.SIZE;
+        LaunchHistory.SIZE = 3;
+    }
+
+    @After
+    public void restoreSize() {
+        LaunchHistory.SIZE = size;
+    }
+
+    @Test
+    public void keepsMostRecentLaunches() {
+        LaunchHistory history = new LaunchHistory(null);
+        for (int i = 1; i <= 5; i++) {
+            history.add(record(i, i * 10, null));
+        }
+        List<LaunchRecord> records = history.getRecords();
+        assertEquals(3, records.size());
+        assertEquals(5, records.get(0).getStartedAt());
+        assertEquals(3, records.get(2).getStartedAt());
+    }
+
+    @Test
+    public void survivesRestart() throws Exception {
+        Path file = tmp.getRoot().toPath().resolve("node").resolve(LaunchHistory.FILE_NAME);
+        LaunchHistory history = LaunchHistory.load(file);
+        history.add(record(1, 100, null));
+        history.add(record(2, 200, LaunchFailure.PROCESS_EXITED));
+
+        List<LaunchRecord> records = LaunchHistory.load(file).getRecords();
+        assertEquals(2, records.size());
+        LaunchRecord failed = records.get(0);
+        assertEquals(2, failed.getStartedAt());
+        assertEquals(LaunchFailure.PROCESS_EXITED, failed.getFailure());
+        assertEquals(Integer.valueOf(255), failed.getExitCode());
+        assertEquals(Long.valueOf(200), failed.getMillis(LaunchPhase.CHANNEL));
+        assertTrue(records.get(1).isSucceeded());
+        assertNull(records.get(1).getExitCode());
+    }
+
+    @Test
+    public void compactsFile() throws Exception {
+        Path file = tmp.getRoot().toPath().resolve(LaunchHistory.FILE_NAME);
+        LaunchHistory history = LaunchHistory.load(file);
+        for (int i = 1; i <= 20; i++) {
+            history.add(record(i, i, null));
+        }
+        assertTrue(Files.readAllLines(file, StandardCharsets.UTF_8).size() <= 2 * LaunchHistory.SIZE);
+        assertEquals(20, LaunchHistory.load(file).getRecords().get(0).getStartedAt());
+    }
+
+    @Test
+    public void skipsMalformedLines() throws Exception {
+        Path file = tmp.getRoot().toPath().resolve(LaunchHistory.FILE_NAME);
+        Files.writeString(file, "garbage\n1\tOK\t-\t5\tSPAWN=2\n2\tNOT_A_FAILURE\t-\t5\n", StandardCharsets.UTF_8);
+        List<LaunchRecord> records = LaunchHistory.load(file).getRecords();
+        assertEquals(1, records.size());
+        assertEquals(Long.valueOf(2), records.get(0).getMillis(LaunchPhase.SPAWN));
+    }
+
+    @Test
+    public void percentiles() {
+        LaunchHistory.SIZE = 100;
+        LaunchHistory history = new LaunchHistory(null);
+        for (int i = 1; i <= 100; i++) {
+            history.add(record(i, i, null));
+        }
+        LaunchHistory.Percentiles channel = history.getPercentiles().stream()
+                .filter(p -> p.getName().equals("CHANNEL")).findFirst().orElseThrow();
+        assertEquals(100, channel.getCount());
+        assertEquals(50, channel.getP50());
+        assertEquals(90, channel.getP90());
+        assertEquals(99, channel.getP99());
+        assertEquals(100, channel.getMax());
+        assertEquals(0, history.getPercentiles().stream()
+                .filter(p -> p.getName().equals("FIRST_BYTE")).findFirst().orElseThrow().getCount());
+    }
+
+    private static LaunchRecord record(long startedAt, long channelMillis, LaunchFailure failure) {
+        return new LaunchRecord(startedAt, channelMillis + 1, failure, failure == null ? null : 255, Map.of(LaunchPhase.CHANNEL, channelMillis));
+    }
+}
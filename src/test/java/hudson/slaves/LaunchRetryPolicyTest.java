@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LaunchRetryPolicyTest {
+
+    @Test
+    public void retriesEveryFailureWithoutFilters() {
+        LaunchRetryPolicy policy = new LaunchRetryPolicy(3);
+        assertTrue(policy.shouldRetry(1, 1, ""));
+        assertTrue(policy.shouldRetry(2, null, ""));
+        assertFalse(policy.shouldRetry(3, 1, ""));
+    }
+
+    @Test
+    public void retriesOnlyMatchingFailures() {
+        LaunchRetryPolicy policy = new LaunchRetryPolicy(5);
+        policy.setExitCodes("255, 2");
+        policy.setStderrPattern("Connection (refused|reset)");
+        assertTrue(policy.shouldRetry(1, 255, ""));
+        assertTrue(policy.shouldRetry(1, 2, ""));
+        assertFalse(policy.shouldRetry(1, 1, "Permission denied (publickey)"));
+        assertTrue(policy.shouldRetry(1, 1, "ssh: connect to host agent port 22: Connection refused\n"));
+        assertFalse(policy.shouldRetry(1, null, ""));
+    }
+
+    @Test
+    public void delayGrowsExponentiallyWithJitter() {
+        LaunchRetryPolicy policy = new LaunchRetryPolicy(10);
+        policy.setInitialDelay(2);
+        policy.setMaxDelay(10);
+        for (int i = 0; i < 100; i++) {
+            assertBetween(1000, 2000, policy.getDelayMillis(1));
+            assertBetween(2000, 4000, policy.getDelayMillis(2));
+            assertBetween(4000, 8000, policy.getDelayMillis(3));
+            assertBetween(5000, 10000, policy.getDelayMillis(4));
+            assertBetween(5000, 10000, policy.getDelayMillis(40));
+        }
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual + " should be at least " + min, actual >= min);
+        assertTrue(actual + " should be at most " + max, actual <= max);
+    }
+}
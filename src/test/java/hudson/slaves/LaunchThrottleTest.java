@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.*;
+
+public class LaunchThrottleTest {
+
+    @Test
+    public void unlimited() throws Exception {
+        LaunchThrottle throttle = new LaunchThrottle(() -> 0);
+        LaunchThrottle.Slot a = throttle.acquire();
+        LaunchThrottle.Slot b = throttle.acquire();
+        assertEquals(2, throttle.getActive());
+        a.close();
+        b.close();
+        assertEquals(0, throttle.getActive());
+        assertEquals(2, throttle.getAdmitted());
+    }
+
+    @Test
+    public void admitsInArrivalOrder() throws Exception {
+        LaunchThrottle throttle = new LaunchThrottle(() -> 1);
+        LaunchThrottle.Slot first = throttle.acquire();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        Thread[] waiters = new Thread[3];
+        for (int i = 0; i < waiters.length; i++) {
+            int id = i;
+            waiters[i] = new Thread(() -> {
+                try (LaunchThrottle.Slot slot = throttle.acquire()) {
+                    order.add(id);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            waiters[i].start();
+            awaitQueueLength(throttle, i + 1);
+        }
+        assertEquals(1, throttle.getActive());
+        first.close();
+        for (Thread waiter : waiters) {
+            waiter.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        assertThat(order, contains(0, 1, 2));
+        assertEquals(0, throttle.getQueueLength());
+        assertEquals(0, throttle.getActive());
+    }
+
+    @Test
+    public void raisedLimitAdmitsQueuedLaunches() throws Exception {
+        AtomicInteger limit = new AtomicInteger(1);
+        LaunchThrottle throttle = new LaunchThrottle(limit::get);
+        LaunchThrottle.Slot first = throttle.acquire();
+        Thread waiter = new Thread(() -> {
+            try {
+                throttle.acquire();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        waiter.start();
+        awaitQueueLength(throttle, 1);
+        limit.set(2);
+        waiter.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(waiter.isAlive());
+        assertEquals(2, throttle.getActive());
+        first.close();
+    }
+
+    @Test
+    public void releaseIsIdempotent() throws Exception {
+        LaunchThrottle throttle = new LaunchThrottle(() -> 1);
+        LaunchThrottle.Slot slot = throttle.acquire();
+        slot.close();
+        slot.close();
+        assertEquals(0, throttle.getActive());
+    }
+
+    @Test
+    public void interruptedWaiterLeavesQueue() throws Exception {
+        LaunchThrottle throttle = new LaunchThrottle(() -> 1);
+        LaunchThrottle.Slot first = throttle.acquire();
+        Thread waiter = new Thread(() -> {
+            try {
+                throttle.acquire();
+                fail("should have been interrupted");
+            } catch (InterruptedException expected) {
+                // expected
+            }
+        });
+        waiter.start();
+        awaitQueueLength(throttle, 1);
+        waiter.interrupt();
+        waiter.join(TimeUnit.SECONDS.toMillis(10));
+        assertEquals(0, throttle.getQueueLength());
+        first.close();
+        assertEquals(0, throttle.getActive());
+    }
+
+    @Test
+    public void spacesAdmissions() throws Exception {
+        LaunchThrottle throttle = new LaunchThrottle("host", () -> 0, () -> 200);
+        long start = System.nanoTime();
+        throttle.acquire().close();
+        throttle.acquire().close();
+        throttle.acquire().close();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(400));
+        assertEquals("host", throttle.getName());
+        assertEquals(3, throttle.getAdmitted());
+    }
+
+    private static void awaitQueueLength(LaunchThrottle throttle, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (throttle.getQueueLength() < expected) {
+            assertTrue("timed out waiting for queued launches", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.EnvVars;
+import hudson.Functions;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+public class ProcessReaperTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void tearsDownOffTheCallingThread() throws Exception {
+        assumeFalse(Functions.isWindows());
+        ProcessReaper reaper = new ProcessReaper(1);
+        EnvVars cookie = EnvVars.createCookie();
+        ProcessBuilder pb = new ProcessBuilder("sleep", "600");
+        pb.environment().putAll(cookie);
+        Process proc = pb.start();
+        AtomicBoolean done = new AtomicBoolean();
+        LaunchedProcesses.add(proc, cookie, done);
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        reaper.reap(proc, cookie, done, () -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        // the single thread is busy, so another teardown has to wait
+        reaper.reap(proc, cookie, done, null);
+        assertEquals(1, reaper.getActive());
+        assertEquals(1, reaper.getQueueLength());
+        assertEquals(1, reaper.getMaxQueueLength());
+        assertTrue(proc.isAlive());
+
+        release.countDown();
+        assertTrue(proc.waitFor(10, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (reaper.getCompleted() < 2) {
+            assertTrue("timed out waiting for the teardowns", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        assertTrue(done.get());
+        assertEquals(2, reaper.getSubmitted());
+        assertEquals(0, reaper.getFailed());
+        assertEquals(2, reaper.getQueueWait().getCount());
+        assertEquals(0, LaunchedProcesses.size());
+    }
+
+    @Test
+    public void alreadyTornDownIsSkipped() throws Exception {
+        assumeFalse(Functions.isWindows());
+        ProcessReaper reaper = new ProcessReaper(1);
+        Process proc = new ProcessBuilder("true").start();
+        reaper.reap(proc, EnvVars.createCookie(), new AtomicBoolean(true), null);
+        assertEquals(0, reaper.getSubmitted());
+        proc.waitFor();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.EnvVars;
+import hudson.Functions;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+public class ProcessTeardownTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void killsLiveTreeBeforeScanning() throws Exception {
+        assumeFalse(Functions.isWindows());
+        EnvVars cookie = EnvVars.createCookie();
+        ProcessBuilder pb = new ProcessBuilder("sh", "-c", "sleep 600 & wait");
+        pb.environment().putAll(cookie);
+        Process proc = pb.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (proc.toHandle().descendants().count() == 0) {
+            assertTrue("timed out waiting for the child process", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        ProcessHandle child = proc.toHandle().descendants().findFirst().orElseThrow();
+
+        ProcessTeardown.kill(proc, cookie);
+
+        assertTrue(proc.waitFor(10, TimeUnit.SECONDS));
+        child.onExit().get(10, TimeUnit.SECONDS);
+        LaunchHistogram tree = LaunchStatistics.get().getTeardowns().get(0);
+        LaunchHistogram scan = LaunchStatistics.get().getTeardowns().get(1);
+        assertEquals(1, tree.getCount());
+        assertEquals(0, scan.getCount());
+    }
+
+    @Test
+    public void killsProcessesThatLeftTheTree() throws Exception {
+        assumeFalse(Functions.isWindows());
+        EnvVars cookie = EnvVars.createCookie();
+        File pidFile = new File(tmp.getRoot(), "pid");
+        // the subshell exits right away, so its sleep is reparented and no longer a descendant
+        ProcessBuilder pb = new ProcessBuilder("sh", "-c", "(sleep 600 >/dev/null 2>&1 & echo $! > " + pidFile + "); sleep 600");
+        pb.environment().putAll(cookie);
+        Process proc = pb.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!pidFile.isFile() || Files.readString(pidFile.toPath(), StandardCharsets.UTF_8).isBlank()) {
+            assertTrue("timed out waiting for the detached process", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        long pid = Long.parseLong(Files.readString(pidFile.toPath(), StandardCharsets.UTF_8).trim());
+        ProcessHandle detached = ProcessHandle.of(pid).orElseThrow();
+        assertTrue(proc.toHandle().descendants().noneMatch(p -> p.pid() == pid));
+
+        ProcessTeardown.kill(proc, cookie);
+        assertTrue(proc.waitFor(10, TimeUnit.SECONDS));
+        assertTrue(detached.isAlive());
+
+        // rather than waiting for the scheduled sweep
+        assertEquals(1, ProcessTeardown.sweep());
+        detached.onExit().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void scansForCookieOnceProcessHasExited() throws Exception {
+        assumeFalse(Functions.isWindows());
+        EnvVars cookie = EnvVars.createCookie();
+        ProcessBuilder pb = new ProcessBuilder("true");
+        pb.environment().putAll(cookie);
+        Process proc = pb.start();
+        assertTrue(proc.waitFor(10, TimeUnit.SECONDS));
+
+        ProcessTeardown.kill(proc, cookie);
+
+        assertEquals(1, LaunchStatistics.get().getTeardowns().get(1).getCount());
+    }
+
+    @Test
+    public void tearsDownAllLaunchedProcessesTogether() throws Exception {
+        assumeFalse(Functions.isWindows());
+        EnvVars liveCookie = EnvVars.createCookie();
+        ProcessBuilder live = new ProcessBuilder("sh", "-c", "sleep 600 & wait");
+        live.environment().putAll(liveCookie);
+        Process liveProc = live.start();
+        AtomicBoolean liveDone = new AtomicBoolean();
+        LaunchedProcesses.add(liveProc, liveCookie, liveDone);
+
+        // exits at once, leaving its child behind where only the cookie can find it
+        EnvVars orphanCookie = EnvVars.createCookie();
+        ProcessBuilder orphaning = new ProcessBuilder("sh", "-c", "sleep 600 >/dev/null 2>&1 & echo $!");
+        orphaning.environment().putAll(orphanCookie);
+        Process orphaningProc = orphaning.start();
+        long orphanPid = Long.parseLong(new String(orphaningProc.getInputStream().readAllBytes()).trim());
+        assertTrue(orphaningProc.waitFor(10, TimeUnit.SECONDS));
+        AtomicBoolean orphaningDone = new AtomicBoolean();
+        LaunchedProcesses.add(orphaningProc, orphanCookie, orphaningDone);
+        assertEquals(2, LaunchedProcesses.size());
+
+        ProcessTeardown.Batch batch = LaunchedProcesses.killAll();
+
+        assertNotNull(batch);
+        assertEquals(2, batch.launched);
+        assertTrue(liveDone.get());
+        assertTrue(orphaningDone.get());
+        assertEquals(0, LaunchedProcesses.size());
+        assertTrue(liveProc.waitFor(10, TimeUnit.SECONDS));
+        ProcessHandle orphan = ProcessHandle.of(orphanPid).orElse(null);
+        if (orphan != null) {
+            orphan.onExit().get(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.Functions;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+public class StandbyPoolTest {
+
+    @Test
+    public void handsOverStartedProcesses() throws Exception {
+        assumeFalse(Functions.isWindows());
+        StandbyPool pool = new StandbyPool();
+        StandbyPool.Factory factory = cookie -> {
+            ProcessBuilder pb = new ProcessBuilder("sh", "-c", "echo standby $FOO >&2; sleep 60");
+            pb.environment().putAll(cookie);
+            pb.environment().put("FOO", "ready");
+            return pb;
+        };
+        assertNull(pool.take("key"));
+        pool.replenish("key", 2, factory);
+        awaitSize(pool, "key", 2);
+
+        StandbyPool.Standby standby = pool.take("key");
+        assertNotNull(standby);
+        try {
+            assertTrue(standby.proc.isAlive());
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            standby.stderr.attach(stderr);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!stderr.toString(StandardCharsets.UTF_8).contains("standby")) {
+                assertTrue("timed out waiting for stderr", System.nanoTime() < deadline);
+                Thread.sleep(10);
+            }
+            assertThat(stderr.toString(StandardCharsets.UTF_8), containsString("standby ready"));
+
+            pool.replenish("key", 2, factory);
+            awaitSize(pool, "key", 2);
+        } finally {
+            standby.proc.destroyForcibly();
+            StandbyPool.Standby rest;
+            while ((rest = pool.take("key")) != null) {
+                rest.proc.destroyForcibly();
+            }
+        }
+    }
+
+    @Test
+    public void skipsTerminatedProcesses() throws Exception {
+        assumeFalse(Functions.isWindows());
+        StandbyPool pool = new StandbyPool();
+        pool.replenish("key", 1, cookie -> new ProcessBuilder("true"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pool.size("key") == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(500);
+        assertNull(pool.take("key"));
+    }
+
+    private static void awaitSize(StandbyPool pool, String key, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (pool.size(key) < size) {
+            assertTrue("timed out waiting for standby processes", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
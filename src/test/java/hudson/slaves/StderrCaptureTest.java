@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.Assert.*;
+
+public class StderrCaptureTest {
+
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    private StderrCapture capture(int tailBytes, long bytesPerSecond) {
+        return new StderrCapture(new PrintStream(log, true, StandardCharsets.UTF_8), StandardCharsets.UTF_8, tailBytes, bytesPerSecond);
+    }
+
+    private String log() {
+        return log.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void unlimitedWritesThrough() {
+        StderrCapture capture = capture(4, 0);
+        capture.write("hello world\n".getBytes(StandardCharsets.UTF_8), 0, 12);
+        capture.close();
+        assertEquals("hello world\n", log());
+        assertEquals(0, capture.getSuppressed());
+        assertEquals("rld\n", capture.getTail());
+    }
+
+    @Test
+    public void tailWrapsAround() {
+        StderrCapture capture = capture(8, 0);
+        for (char c = 'a'; c <= 'z'; c++) {
+            capture.write(c);
+        }
+        assertEquals("stuvwxyz", capture.getTail());
+    }
+
+    @Test
+    public void suppressesBeyondRateAndDumpsTail() {
+        StderrCapture capture = capture(16, 10);
+        byte[] line = "0123456789abcdefghij\n".getBytes(StandardCharsets.UTF_8);
+        capture.write(line, 0, line.length);
+        assertEquals(11, capture.getSuppressed());
+        assertThat(log(), containsString("0123456789"));
+        assertThat(log(), containsString("further output is suppressed"));
+        assertFalse(log().contains("abcdefghij"));
+
+        capture.close();
+        assertThat(log(), containsString("11 bytes of stderr were suppressed"));
+        assertThat(log(), endsWith("56789abcdefghij\n"));
+    }
+
+    @Test
+    public void failFastMatchesCompleteLinesOnce() {
+        StderrCapture capture = capture(0, 10);
+        List<String> matches = new ArrayList<>();
+        capture.failFast(List.of(Pattern.compile("Connection refused")), matches::add);
+        for (String chunk : new String[] {"Warning: something\r\nssh: connect to host x port 22: Conn", "ection refused\r\n", "Connection refused\n"}) {
+            byte[] b = chunk.getBytes(StandardCharsets.UTF_8);
+            capture.write(b, 0, b.length);
+        }
+        // matched although the rate limit suppressed it from the log
+        assertEquals(List.of("ssh: connect to host x port 22: Connection refused"), matches);
+    }
+
+    @Test
+    public void stoppedFailFastDoesNotMatch() {
+        StderrCapture capture = capture(0, 0);
+        List<String> matches = new ArrayList<>();
+        capture.failFast(List.of(Pattern.compile("denied")), matches::add);
+        capture.stopFailFast();
+        byte[] b = "Permission denied\n".getBytes(StandardCharsets.UTF_8);
+        capture.write(b, 0, b.length);
+        assertEquals(List.of(), matches);
+    }
+
+    @Test
+    public void releasedTailIsNoLongerKept() {
+        StderrCapture capture = capture(16, 0);
+        byte[] b = "before\n".getBytes(StandardCharsets.UTF_8);
+        capture.write(b, 0, b.length);
+        assertEquals("before\n", capture.getTail());
+        capture.releaseTail();
+        b = "after\n".getBytes(StandardCharsets.UTF_8);
+        capture.write(b, 0, b.length);
+        assertEquals("", capture.getTail());
+        assertEquals("before\nafter\n", log());
+    }
+
+    @Test
+    public void rateLimitedTailIsKept() {
+        StderrCapture capture = capture(16, 1000);
+        capture.releaseTail();
+        byte[] b = "kept\n".getBytes(StandardCharsets.UTF_8);
+        capture.write(b, 0, b.length);
+        assertEquals("kept\n", capture.getTail());
+    }
+}
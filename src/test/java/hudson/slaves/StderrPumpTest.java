@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.Functions;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+public class StderrPumpTest {
+
+    @Test
+    public void copiesUntilProcessTerminates() throws Exception {
+        assumeFalse(Functions.isWindows());
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        Process p1 = new ProcessBuilder("sh", "-c", "echo one >&2; sleep 1; echo two >&2").start();
+        Process p2 = new ProcessBuilder("sh", "-c", "head -c 100000 /dev/zero >&2").start();
+        StderrPump.INSTANCE.register(p1, p1.getErrorStream(), first);
+        StderrPump.INSTANCE.register(p2, p2.getErrorStream(), second);
+        assertTrue(p1.waitFor(10, TimeUnit.SECONDS));
+        assertTrue(p2.waitFor(10, TimeUnit.SECONDS));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (StderrPump.INSTANCE.size() > 0) {
+            assertTrue("timed out waiting for the pump to finish", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        assertEquals("one\ntwo\n", first.toString(StandardCharsets.UTF_8));
+        assertEquals(100000, second.size());
+    }
+
+    @Test
+    public void keepsLastLineWrittenBeforeExit() throws Exception {
+        assumeFalse(Functions.isWindows());
+        for (int i = 0; i < 20; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Process p = new ProcessBuilder("sh", "-c", "sleep 0.0$RANDOM; echo 'Permission denied' >&2").start();
+            StderrPump.INSTANCE.register(p, p.getErrorStream(), out);
+            assertTrue(p.waitFor(10, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (StderrPump.INSTANCE.size() > 0) {
+                assertTrue("timed out waiting for the pump to finish", System.nanoTime() < deadline);
+                Thread.sleep(1);
+            }
+            assertEquals("Permission denied\n", out.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void doesNotCloseNodeLog() throws Exception {
+        assumeFalse(Functions.isWindows());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream log = new PrintStream(out, true, StandardCharsets.UTF_8);
+        Process p = new ProcessBuilder("sh", "-c", "echo bye >&2").start();
+        StderrPump.INSTANCE.register(p, p.getErrorStream(), new StderrCapture(log, StandardCharsets.UTF_8, 0, 0));
+        assertTrue(p.waitFor(10, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (StderrPump.INSTANCE.size() > 0) {
+            assertTrue("timed out waiting for the pump to finish", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        log.println("still open");
+        assertFalse(log.checkError());
+        assertEquals("bye\nstill open\n", out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import hudson.Functions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+public class UnixSocketTransportTest {
+
+    @Test
+    public void carriesDataBothWays() throws Exception {
+        assumeFalse(Functions.isWindows());
+        Process proc = new ProcessBuilder("sleep", "60").start();
+        try (UnixSocketTransport transport = UnixSocketTransport.open();
+             SocketChannel client = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            Path path = transport.getPath();
+            client.connect(UnixDomainSocketAddress.of(path));
+            SocketChannel server = transport.accept(proc);
+            assertFalse("socket is removed once connected", Files.exists(path));
+
+            OutputStream out = UnixSocketTransport.out(server, 0);
+            out.write(new byte[] {1, 2, 3});
+            out.flush();
+            ByteBuffer received = ByteBuffer.allocate(3);
+            while (received.hasRemaining()) {
+                assertTrue(client.read(received) >= 0);
+            }
+            assertArrayEquals(new byte[] {1, 2, 3}, received.array());
+
+            client.write(ByteBuffer.wrap(new byte[] {4, 5}));
+            client.shutdownOutput();
+            InputStream in = UnixSocketTransport.in(server, 0);
+            assertArrayEquals(new byte[] {4, 5}, in.readAllBytes());
+            in.close();
+        } finally {
+            proc.destroyForcibly();
+        }
+    }
+
+    @Test
+    public void processExitAbortsAccept() throws Exception {
+        assumeFalse(Functions.isWindows());
+        Process proc = new ProcessBuilder("true").start();
+        try (UnixSocketTransport transport = UnixSocketTransport.open()) {
+            Path dir = transport.getPath().getParent();
+            try {
+                transport.accept(proc);
+                fail("nothing connected");
+            } catch (IOException e) {
+                // expected
+            }
+            assertTrue(proc.waitFor(10, TimeUnit.SECONDS));
+            assertFalse(Files.exists(dir));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package jmh.benchmarks;
+
+import hudson.slaves.CommandLauncher;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the throughput of the process pipes behind a {@link CommandLauncher} channel
+ * for different {@linkplain CommandLauncher#setChannelBufferSize(int) buffer sizes}.
+ * <p>
+ * The streams are used the way remoting's chunked transport uses them:
+ * a two byte header read or written byte by byte, followed by up to 8 KiB of payload,
+ * with a flush after every command of eight chunks.
+ * Requires a POSIX shell.
+ */
+@JmhBenchmark
+@State(Scope.Benchmark)
+public class ChannelThroughputBenchmark {
+
+    private static final int TOTAL = 8 * 1024 * 1024;
+    private static final int CHUNK = 8190;
+    private static final int CHUNKS_PER_COMMAND = 8;
+
+    /**
+     * Channel buffer size in KiB; zero uses the streams of the process as they are.
+     */
+    @Param({"0", "8", "64", "256"})
+    public int bufferSize;
+
+    @Benchmark
+    public long read() throws Exception {
+        Process proc = new ProcessBuilder("sh", "-c", "head -c " + TOTAL + " /dev/zero").start();
+        InputStream in = bufferSize > 0 ? new BufferedInputStream(proc.getInputStream(), bufferSize * 1024) : proc.getInputStream();
+        byte[] payload = new byte[CHUNK];
+        long read = 0;
+        try (in) {
+            while (true) {
+                if (in.read() < 0 || in.read() < 0) {
+                    break;
+                }
+                int n = in.read(payload, 0, CHUNK);
+                if (n < 0) {
+                    break;
+                }
+                read += n + 2;
+            }
+        }
+        proc.waitFor();
+        return read;
+    }
+
+    @Benchmark
+    public int write() throws Exception {
+        Process proc = new ProcessBuilder("sh", "-c", "cat > /dev/null").start();
+        OutputStream out = bufferSize > 0 ? new BufferedOutputStream(proc.getOutputStream(), bufferSize * 1024) : proc.getOutputStream();
+        byte[] payload = new byte[CHUNK];
+        try (out) {
+            for (int written = 0, chunks = 0; written < TOTAL; written += CHUNK + 2) {
+                writeChunk(out, payload);
+                if (++chunks % CHUNKS_PER_COMMAND == 0) {
+                    out.flush();
+                }
+            }
+        }
+        return proc.waitFor();
+    }
+
+    private static void writeChunk(OutputStream out, byte[] payload) throws IOException {
+        out.write(payload.length >> 8);
+        out.write(payload.length);
+        out.write(payload, 0, payload.length);
+    }
+}
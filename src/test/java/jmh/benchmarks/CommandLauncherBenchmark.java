@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Jenkins contributors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package jmh.benchmarks;
+
+import hudson.EnvVars;
+import hudson.Functions;
+import hudson.Util;
+import hudson.slaves.CommandLauncher;
+import hudson.slaves.DumbSlave;
+import hudson.slaves.RetentionStrategy;
+import hudson.slaves.SlaveComputer;
+import java.io.File;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.jenkinsci.plugins.scriptsecurity.scripts.ScriptApproval;
+import org.jenkinsci.plugins.scriptsecurity.scripts.languages.SystemCommandLanguage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the work {@link CommandLauncher#launch} does for every launch before and while spawning the command.
+ */
+@JmhBenchmark
+public class CommandLauncherBenchmark {
+
+    static final String COMMAND = "ssh -o BatchMode=yes -o ServerAliveInterval=30 build@agent.example.com \"java -Xmx512m -jar /home/build/agent.jar\"";
+
+    private static final String[] TRIVIAL_COMMAND = Functions.isWindows()
+            ? new String[] {"cmd", "/c", "exit"}
+            : new String[] {"true"};
+
+    /**
+     * A Jenkins instance with a single node launched through {@link CommandLauncher}.
+     */
+    public static class JenkinsState extends JmhBenchmarkState {
+        CommandLauncher launcher;
+        DumbSlave node;
+        SlaveComputer computer;
+
+        @Override
+        public void setup() throws Exception {
+            launcher = new CommandLauncher(COMMAND, new EnvVars("FOO", "bar", "BAZ", "quux"));
+            node = new DumbSlave("benchmark", new File(getJenkins().getRootDir(), "agent").getPath(), launcher);
+            node.setRetentionStrategy(RetentionStrategy.NOOP); // never actually launch
+            getJenkins().addNode(node);
+            computer = (SlaveComputer) node.toComputer();
+        }
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        blackhole.consume(Util.tokenize(COMMAND));
+    }
+
+    @Benchmark
+    public void environment(JenkinsState state, Blackhole blackhole) {
+        blackhole.consume(state.launcher.createProcessBuilder(COMMAND, state.computer, state.node, EnvVars.createCookie()).environment());
+    }
+
+    @Benchmark
+    public void approval(JenkinsState state, Blackhole blackhole) {
+        blackhole.consume(ScriptApproval.get().using(COMMAND, SystemCommandLanguage.get()));
+    }
+
+    @Benchmark
+    public void cachedApproval(JenkinsState state, Blackhole blackhole) {
+        blackhole.consume(state.launcher.getApprovedCommand());
+    }
+
+    /**
+     * Everything a relaunch does before spawning the command.
+     */
+    @Benchmark
+    public void relaunch(JenkinsState state, Blackhole blackhole) {
+        String command = state.launcher.getApprovedCommand();
+        blackhole.consume(state.launcher.createProcessBuilder(command, state.computer, state.node, EnvVars.createCookie()));
+    }
+
+    @Benchmark
+    public int spawn() throws Exception {
+        return new ProcessBuilder(TRIVIAL_COMMAND).start().waitFor();
+    }
+}